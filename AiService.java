@@ -0,0 +1,55 @@
+import java.util.concurrent.*;
+
+/**
+ * Runs CPU move selection off the Swing Event Dispatch Thread.
+ * Each request searches a private snapshot of the board on a dedicated
+ * background thread. Starting a new request or calling cancel() abandons the
+ * previous one, and the interrupted search stops at its next check.
+ */
+public class AiService {
+
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "inertia-ai");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final MoveStrategy strategy;
+    private CompletableFuture<Direction> pending;
+    private Future<?> running;
+
+    public AiService(MoveStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    public synchronized CompletableFuture<Direction> chooseAsync(BoardModel model) {
+        cancel();
+        BoardModel snapshot = model.copy();
+        CompletableFuture<Direction> result = new CompletableFuture<>();
+        running = EXECUTOR.submit(() -> {
+            try {
+                result.complete(strategy.chooseMove(snapshot));
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+        pending = result;
+        return result;
+    }
+
+    // True while the given request is the latest one and has not been cancelled
+    public synchronized boolean isCurrent(CompletableFuture<Direction> request) {
+        return request == pending;
+    }
+
+    public synchronized void cancel() {
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+        if (running != null) {
+            running.cancel(true);
+            running = null;
+        }
+    }
+}
\ No newline at end of file
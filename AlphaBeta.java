@@ -0,0 +1,177 @@
+import java.util.concurrent.CancellationException;
+
+/**
+ * Alternating-move alpha-beta search used by Master mode.
+ * Unlike the Greedy lookahead, which plays the CPU alone, this plays CPU and human
+ * turns in order on one board with doMove/undoMove. A gem the human reaches first
+ * is therefore lost to the CPU. Positions are scored by the score and shield
+ * difference. Moves are ordered by the transposition table's best move, then by
+ * immediate gains. The search deepens iteratively within the Hard mode time budget.
+ */
+public class AlphaBeta implements MoveStrategy {
+
+    private static final int MAX_DEPTH = 32;
+    private static final int WIN = 1_000_000;
+    private static final long CPU_TO_MOVE = 0x5DEECE66DL;
+
+    private final TranspositionTable table = new TranspositionTable(1 << 16);
+    private final Search search = new Search(table);
+    private volatile int lastDepth = 0;
+
+    public int lastDepth() {
+        return lastDepth;
+    }
+
+    @Override
+    public String name() {
+        return "master";
+    }
+
+    @Override
+    public synchronized void newGame(long seed) {
+        table.clear();
+    }
+
+    @Override
+    public synchronized Direction chooseMove(BoardModel m) {
+        BoardModel board = m.copy();
+        search.reset(board);
+        int n = board.safeMoves(board.cpuRow, board.cpuCol, board.cpuShields, search.moves[0]);
+        if (n == 0) return null;
+        if (n == 1) return search.moves[0][0];
+
+        // Depth 1 always completes so there is a move to return
+        SearchBudget budget = Greedy.newHardBudget();
+        Direction best = null;
+        int reached = 0;
+        for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+            search.budget = (depth == 1) ? SearchBudget.unlimited() : budget;
+            Direction found = search.root(depth);
+            if (search.budget.isExhausted()) break;
+            best = found;
+            reached = depth;
+        }
+        lastDepth = reached;
+        return best;
+    }
+
+    // Per-ply move lists are allocated once and reused on every turn
+    private static final class Search {
+        final TranspositionTable table;
+        final Direction[][] moves = new Direction[MAX_DEPTH + 1][8];
+        final int[][] order = new int[MAX_DEPTH + 1][8];
+        BoardModel board;
+        long layout;
+        SearchBudget budget;
+
+        Search(TranspositionTable table) {
+            this.table = table;
+        }
+
+        void reset(BoardModel board) {
+            this.board = board;
+            this.layout = board.layoutHash();
+        }
+
+        Direction root(int depth) {
+            int n = orderedMoves(0, true);
+            int alpha = -WIN - 1;
+            Direction best = moves[0][0];
+            for (int k = 0; k < n; k++) {
+                Direction d = moves[0][k];
+                board.doMove(false, d);
+                int score = -negamax(1, depth - 1, -WIN - 1, -alpha, false, false);
+                board.undoMove();
+                if (budget.isExhausted()) return null;
+                if (score > alpha) {
+                    alpha = score;
+                    best = d;
+                }
+            }
+            table.store(key(true), depth, alpha, best);
+            return best;
+        }
+
+        // Score from the point of view of the side to move
+        int negamax(int ply, int depth, int alpha, int beta, boolean cpuToMove, boolean passed) {
+            if (budget.tick()) return 0;
+            if (Thread.currentThread().isInterrupted()) {
+                budget.stop();
+                throw new CancellationException();
+            }
+            if (board.gemCount() == 0) return finalScore(cpuToMove);
+            if (depth == 0 || ply == MAX_DEPTH) return evaluate(cpuToMove);
+
+            int n = orderedMoves(ply, cpuToMove);
+            if (n == 0) {
+                // A side with no safe move passes; two passes in a row end the game
+                if (passed) return finalScore(cpuToMove);
+                return -negamax(ply + 1, depth - 1, -beta, -alpha, !cpuToMove, true);
+            }
+
+            Direction best = null;
+            int bestScore = -WIN - 1;
+            for (int k = 0; k < n; k++) {
+                Direction d = moves[ply][k];
+                board.doMove(!cpuToMove, d);
+                int score = -negamax(ply + 1, depth - 1, -beta, -alpha, !cpuToMove, false);
+                board.undoMove();
+                if (budget.isExhausted()) return 0;
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = d;
+                }
+                if (score > alpha) alpha = score;
+                if (alpha >= beta) break;
+            }
+            table.store(key(cpuToMove), depth, bestScore, best);
+            return bestScore;
+        }
+
+        // Safe moves at this ply, the table's best move first and then by immediate gain
+        int orderedMoves(int ply, boolean cpu) {
+            Direction[] list = moves[ply];
+            int[] gain = order[ply];
+            int r = cpu ? board.cpuRow : board.humanRow;
+            int c = cpu ? board.cpuCol : board.humanCol;
+            int n = board.safeMoves(r, c, cpu ? board.cpuShields : board.humanShields, list);
+            Direction hint = table.bestDirection(key(cpu));
+            for (int k = 0; k < n; k++) {
+                long res = board.slidePacked(r, c, list[k], false);
+                gain[k] = list[k] == hint ? Integer.MAX_VALUE
+                        : BoardModel.slideGems(res) * 100 + BoardModel.slideShields(res) * 10
+                          - (BoardModel.slideHitMine(res) ? 10 : 0);
+            }
+            // Insertion sort, at most 8 moves
+            for (int k = 1; k < n; k++) {
+                Direction d = list[k];
+                int g = gain[k];
+                int j = k - 1;
+                while (j >= 0 && gain[j] < g) {
+                    list[j + 1] = list[j];
+                    gain[j + 1] = gain[j];
+                    j--;
+                }
+                list[j + 1] = d;
+                gain[j + 1] = g;
+            }
+            return n;
+        }
+
+        int evaluate(boolean cpuToMove) {
+            int diff = (board.cpuScore - board.humanScore) * 100 + (board.cpuShields - board.humanShields) * 10;
+            return cpuToMove ? diff : -diff;
+        }
+
+        // Game over: decided by the gem count, with the margin kept to prefer bigger wins
+        int finalScore(boolean cpuToMove) {
+            int diff = board.cpuScore - board.humanScore;
+            int score = Integer.signum(diff) * (WIN / 2) + diff * 100;
+            return cpuToMove ? score : -score;
+        }
+
+        long key(boolean cpuToMove) {
+            return board.hash() ^ layout ^ (cpuToMove ? CPU_TO_MOVE : 0);
+        }
+    }
+}
\ No newline at end of file
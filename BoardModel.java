@@ -1,9 +1,38 @@
+import java.lang.ref.SoftReference;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class BoardModel {
 
     public final int rows, cols;
-    public Cell[][] grid;
+
+    // Packed board: one bit per cell (index r * cols + c) for each attribute
+    private final long[] wallBits;
+    private final long[] stopBits;
+    private final long[] mineBits;
+    private final long[] gemBits;
+    private final long[] shieldBits;
+
+    // Static slide outcomes: jump[index * 8 + direction] = (end index << 1) | hitMine
+    private final int[] jump;
+
+    // Path masks: the gem and shield planes are also kept in column, diagonal and
+    // anti-diagonal order so that every slide path is one contiguous bit range.
+    // Geometry.pos maps a cell index to its bit in each layout, Geometry.cell maps back;
+    // the row layout is the cell index itself and has no table.
+    private static final int ROWS = 0, COLUMNS = 1, DIAGONALS = 2, ANTI_DIAGONALS = 3;
+    private static final int[] LINE_OF = new int[Direction.values().length];
+    static {
+        for (Direction d : Direction.values()) {
+            if (d.dx == 0) LINE_OF[d.ordinal()] = ROWS;
+            else if (d.dy == 0) LINE_OF[d.ordinal()] = COLUMNS;
+            else LINE_OF[d.ordinal()] = (d.dx == d.dy) ? DIAGONALS : ANTI_DIAGONALS;
+        }
+    }
+    private final Geometry geometry;
+    private final long[][] gemLines = new long[4][];
+    private final long[][] shieldLines = new long[4][];
 
     public int humanRow, humanCol;
     public int cpuRow, cpuCol;
@@ -17,33 +46,179 @@ public class BoardModel {
     public boolean gameOver = false;
     public String gameResult = "";
 
-    private final Random rand = new Random();
+    // Side to move next; flips whenever a move actually changes the board
+    public boolean humanToMove = true;
+
+    // Seed the layout was generated from; unseeded boards draw one, so any game can be replayed
+    private long seed;
+    private final boolean snapshot;
     private Difficulty currentDifficulty;
     
     // For animation callbacks
     private ShieldBreakListener shieldBreakListener;
+    // For repainting only what a move changed
+    private BoardChangeListener changeListener;
+    private boolean notifying = false;
+
+    // Undo journal for doMove/undoMove. undoCells lists the item cells cleared by
+    // journaled moves (gems as their index, shields as ~index); each frame holds the
+    // scalar state a move can change: cell mark, side, row, col, score, shields,
+    // gameOver and side to move; the previous hash is kept alongside
+    private static final int FRAME = 8;
+    private int[] undoCells = new int[64];
+    private int undoCellCount = 0;
+    private int[] undoFrames = new int[FRAME * 16];
+    private String[] undoResults = new String[16];
+    private long[] undoHashes = new long[16];
+    private int undoDepth = 0;
+    private boolean recording = false;
+
+    // Zobrist hashing of remaining items, both positions, both shield counts and the
+    // side to move, kept up to date by every move and undo. The per-cell keys come
+    // from the board's Geometry; a player can hold at most every shield on the board.
+    private static final long ZOBRIST_SEED = 0x1A2B3C4D5E6F7081L;
+    private static final int MAX_SHIELDS = 4;
+    private static final long[] HUMAN_SHIELD_KEYS = new long[MAX_SHIELDS + 1];
+    private static final long[] CPU_SHIELD_KEYS = new long[MAX_SHIELDS + 1];
+    private static final long SIDE_KEY;
+    static {
+        SplittableRandom keys = new SplittableRandom(ZOBRIST_SEED).split();
+        for (int k = 0; k <= MAX_SHIELDS; k++) {
+            HUMAN_SHIELD_KEYS[k] = keys.nextLong();
+            CPU_SHIELD_KEYS[k] = keys.nextLong();
+        }
+        SIDE_KEY = keys.nextLong();
+    }
+    private final long[] gemKeys, shieldKeys, humanKeys, cpuKeys;
+    private long hash;
+    private long layoutHash;
 
     public BoardModel(int r, int c) {
         this(r, c, Difficulty.MEDIUM);
     }
     
     public BoardModel(int r, int c, Difficulty diff) {
+        this(r, c, diff, ThreadLocalRandom.current().nextLong());
+    }
+
+    // The same seed always generates a bit-for-bit identical board; see BoardGenerator
+    public BoardModel(int r, int c, Difficulty diff, long seed) {
+        checkSize(r, c);
         rows = r;
         cols = c;
         currentDifficulty = diff;
-        grid = new Cell[r][c];
-        init();
+        this.seed = seed;
+        snapshot = false;
+        int words = (r * c + 63) >>> 6;
+        wallBits = new long[words];
+        stopBits = new long[words];
+        mineBits = new long[words];
+        gemBits = new long[words];
+        shieldBits = new long[words];
+        jump = new int[r * c * 8];
+        gemLines[ROWS] = gemBits;
+        shieldLines[ROWS] = shieldBits;
+        geometry = Geometry.of(r, c);
+        gemKeys = geometry.gemKeys;
+        shieldKeys = geometry.shieldKeys;
+        humanKeys = geometry.humanKeys;
+        cpuKeys = geometry.cpuKeys;
+        init(seed);
+    }
+
+    // slidePacked keeps a row or column in 16 bits and a gem or shield count, at most
+    // one per cell of a line, in 15; the jump table keeps 8 entries per cell in one array
+    private static final int MAX_SIDE = 0x7FFF;
+
+    private static void checkSize(int r, int c) {
+        if (r < 1 || c < 1 || r > MAX_SIDE || c > MAX_SIDE || (long) r * c * 8 > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Boards need 1 to " + MAX_SIDE + " cells per side and at most "
+                    + (Integer.MAX_VALUE / 8) + " cells, not " + r + "x" + c);
+        }
+    }
+
+    // Snapshot for background search: the static layout tables and hash keys are
+    // shared, items and player state are copied, listeners and the journal are not
+    private BoardModel(BoardModel o) {
+        rows = o.rows;
+        cols = o.cols;
+        currentDifficulty = o.currentDifficulty;
+        seed = o.seed;
+        snapshot = true; // shares the layout, so it never generates or resets
+        wallBits = o.wallBits;
+        stopBits = o.stopBits;
+        mineBits = o.mineBits;
+        gemBits = o.gemBits.clone();
+        shieldBits = o.shieldBits.clone();
+        jump = o.jump;
+        gemLines[ROWS] = gemBits;
+        shieldLines[ROWS] = shieldBits;
+        geometry = o.geometry;
+        for (int line = COLUMNS; line < 4; line++) {
+            gemLines[line] = o.gemLines[line].clone();
+            shieldLines[line] = o.shieldLines[line].clone();
+        }
+        gemKeys = o.gemKeys;
+        shieldKeys = o.shieldKeys;
+        humanKeys = o.humanKeys;
+        cpuKeys = o.cpuKeys;
+        hash = o.hash;
+        layoutHash = o.layoutHash;
+        humanRow = o.humanRow;
+        humanCol = o.humanCol;
+        cpuRow = o.cpuRow;
+        cpuCol = o.cpuCol;
+        humanScore = o.humanScore;
+        cpuScore = o.cpuScore;
+        humanShields = o.humanShields;
+        cpuShields = o.cpuShields;
+        gameOver = o.gameOver;
+        gameResult = o.gameResult;
+        humanToMove = o.humanToMove;
+    }
+
+    public BoardModel copy() {
+        return new BoardModel(this);
+    }
+
+    // Regenerates the board in place for a new game, reusing its arrays; the result is
+    // the same board new BoardModel(rows, cols, difficulty, seed) would build. Snapshots
+    // taken with copy() share the layout arrays, so none may still be in use.
+    public void reset(long seed) {
+        if (snapshot) throw new IllegalStateException("Cannot reset a snapshot");
+        this.seed = seed;
+        Arrays.fill(wallBits, 0);
+        Arrays.fill(stopBits, 0);
+        Arrays.fill(mineBits, 0);
+        Arrays.fill(gemBits, 0);
+        Arrays.fill(shieldBits, 0);
+        humanScore = cpuScore = 0;
+        humanShields = cpuShields = 0;
+        gameOver = false;
+        gameResult = "";
+        humanToMove = true;
+        Arrays.fill(undoResults, 0, undoDepth, null);
+        undoDepth = 0;
+        undoCellCount = 0;
+        init(seed);
+    }
+
+    public long seed() {
+        return seed;
     }
 
     public void setShieldBreakListener(ShieldBreakListener listener) {
         this.shieldBreakListener = listener;
     }
 
-    private void init() {
-        for (int r = 0; r < rows; r++)
-            for (int c = 0; c < cols; c++)
-                grid[r][c] = new Cell();
+    public void setBoardChangeListener(BoardChangeListener listener) {
+        this.changeListener = listener;
+    }
 
+    // Layout generation draws only from a SplittableRandom on the seed, whose output is
+    // fixed by its specification, so a seed means the same board on every JVM
+    private void init(long seed) {
+        SplittableRandom rand = new SplittableRandom(seed);
         humanRow = 1;
         humanCol = 1;
         cpuRow = rows - 2;
@@ -52,27 +227,28 @@ public class BoardModel {
         for (int r = 0; r < rows; r++) {
             for (int c = 0; c < cols; c++) {
                 if (r == 0 || c == 0 || r == rows - 1 || c == cols - 1) {
-                    grid[r][c].wall = true;
+                    set(wallBits, index(r, c));
                 }
             }
         }
 
-        int maxShieldsOnBoard = (currentDifficulty == Difficulty.HARD) ? 4 : 2;
+        int maxShieldsOnBoard = (currentDifficulty.compareTo(Difficulty.HARD) >= 0) ? MAX_SHIELDS : 2;
         int shieldCount = 0;
         
         for (int r = 1; r < rows - 1; r++) {
             for (int c = 1; c < cols - 1; c++) {
                 if ((Math.abs(r - humanRow) <= 1 && Math.abs(c - humanCol) <= 1) ||
                     (Math.abs(r - cpuRow) <= 1 && Math.abs(c - cpuCol) <= 1)) continue;
-                if (grid[r][c].wall) continue;
+                int i = index(r, c);
+                if (test(wallBits, i)) continue;
                 
                 int v = rand.nextInt(100);
-                if (v < 12) grid[r][c].wall = true;
-                else if (v < 30) grid[r][c].gem = true;
-                else if (v < 42) grid[r][c].stop = true;
-                else if (v < 48) grid[r][c].mine = true;
+                if (v < 12) set(wallBits, i);
+                else if (v < 30) set(gemBits, i);
+                else if (v < 42) set(stopBits, i);
+                else if (v < 48) set(mineBits, i);
                 else if (v < 52 && shieldCount < maxShieldsOnBoard) {
-                    grid[r][c].shield = true;
+                    set(shieldBits, i);
                     shieldCount++;
                 }
             }
@@ -81,128 +257,465 @@ public class BoardModel {
         while (shieldCount < maxShieldsOnBoard) {
             int r = 1 + rand.nextInt(rows - 2);
             int c = 1 + rand.nextInt(cols - 2);
-            if (!grid[r][c].wall && !grid[r][c].gem && !grid[r][c].stop && 
-                !grid[r][c].mine && !grid[r][c].shield) {
-                grid[r][c].shield = true;
+            int i = index(r, c);
+            if (!test(wallBits, i) && !test(gemBits, i) && !test(stopBits, i) &&
+                !test(mineBits, i) && !test(shieldBits, i)) {
+                set(shieldBits, i);
                 shieldCount++;
             }
         }
+        buildJumpTable();
         pruneUnreachableGems();
+        buildLinePlanes();
+        hash = computeHash();
+        layoutHash = computeLayoutHash();
     }
 
-    private void pruneUnreachableGems() {
-        boolean[][] visited = new boolean[rows][cols];
-        Queue<Point> queue = new LinkedList<>();
+    // Fingerprint of the static walls, stops and mines, so callers caching by hash()
+    // can tell positions on different boards apart
+    private long computeLayoutHash() {
+        long h = ((long) rows << 32) | cols;
+        long[][] planes = {wallBits, stopBits, mineBits};
+        for (long[] plane : planes) {
+            for (long word : plane) {
+                h = (h ^ word) * 0x9E3779B97F4A7C15L;
+                h ^= h >>> 31;
+            }
+        }
+        return h;
+    }
+
+    // Full recomputation, O(rows * cols); move() and undoMove() keep hash current incrementally
+    public long computeHash() {
+        long h = playerHash();
+        for (int i = nextSetBit(gemBits, 0); i >= 0; i = nextSetBit(gemBits, i + 1)) h ^= gemKeys[i];
+        for (int i = nextSetBit(shieldBits, 0); i >= 0; i = nextSetBit(shieldBits, i + 1)) h ^= shieldKeys[i];
+        if (humanToMove) h ^= SIDE_KEY;
+        return h;
+    }
 
-        queue.add(new Point(humanRow, humanCol));
-        visited[humanRow][humanCol] = true;
+    public long hash() {
+        return hash;
+    }
 
-        boolean[][] gemReachable = new boolean[rows][cols];
+    public long layoutHash() {
+        return layoutHash;
+    }
 
-        while (!queue.isEmpty()) {
-            Point p = queue.poll();
-            for (Direction d : Direction.values()) {
-                SlideResult res = slide(p.r, p.c, d, false);
-                if (res.hitMine) continue;
-                if (!visited[res.r][res.c]) {
-                    visited[res.r][res.c] = true;
-                    queue.add(new Point(res.r, res.c));
-                }
-                markPathGems(p.r, p.c, d, gemReachable);
+    private int linePos(int line, int i) {
+        return (line == ROWS) ? i : geometry.pos[line][i];
+    }
+
+    private int lineCell(int line, int p) {
+        return (line == ROWS) ? p : geometry.cell[line][p];
+    }
+
+    // Tables that depend only on the board's dimensions, built once per size and
+    // shared by every board of that size, so reset() rebuilds none of them. Boards
+    // hold their Geometry strongly; the cache only softly, so a size no live board
+    // uses, such as a one-off huge board, can be reclaimed when memory runs short.
+    private static final Map<Long, SoftReference<Geometry>> GEOMETRIES = new ConcurrentHashMap<>();
+
+    private static final class Geometry {
+        final int[][] pos = new int[4][];
+        final int[][] cell = new int[4][];
+        final long[] gemKeys, shieldKeys, humanKeys, cpuKeys;
+
+        // Two threads may race to build the same size; both copies are identical
+        static Geometry of(int rows, int cols) {
+            long key = ((long) rows << 32) | cols;
+            SoftReference<Geometry> ref = GEOMETRIES.get(key);
+            Geometry g = (ref != null) ? ref.get() : null;
+            if (g == null) {
+                g = new Geometry(rows, cols);
+                GEOMETRIES.values().removeIf(r -> r.get() == null);
+                GEOMETRIES.put(key, new SoftReference<>(g));
             }
+            return g;
         }
 
-        for (int r = 0; r < rows; r++) {
-            for (int c = 0; c < cols; c++) {
-                if (grid[r][c].gem && !gemReachable[r][c]) grid[r][c].gem = false;
+        private Geometry(int rows, int cols) {
+            int n = rows * cols;
+            for (int o = COLUMNS; o < 4; o++) {
+                pos[o] = new int[n];
+                cell[o] = new int[n];
+            }
+            SplittableRandom keys = new SplittableRandom(ZOBRIST_SEED);
+            gemKeys = new long[n];
+            shieldKeys = new long[n];
+            humanKeys = new long[n];
+            cpuKeys = new long[n];
+            for (int i = 0; i < n; i++) {
+                gemKeys[i] = keys.nextLong();
+                shieldKeys[i] = keys.nextLong();
+                humanKeys[i] = keys.nextLong();
+                cpuKeys[i] = keys.nextLong();
             }
+            int p = 0;
+            for (int c = 0; c < cols; c++)
+                for (int r = 0; r < rows; r++)
+                    place(COLUMNS, r * cols + c, p++);
+            // r - c is constant along a diagonal, r + c along an anti-diagonal
+            p = 0;
+            for (int k = -(cols - 1); k < rows; k++)
+                for (int r = Math.max(0, k); r < rows && r - k < cols; r++)
+                    place(DIAGONALS, r * cols + r - k, p++);
+            p = 0;
+            for (int k = 0; k < rows + cols - 1; k++)
+                for (int r = Math.max(0, k - (cols - 1)); r < rows && r <= k; r++)
+                    place(ANTI_DIAGONALS, r * cols + k - r, p++);
+        }
+
+        private void place(int line, int i, int p) {
+            pos[line][i] = p;
+            cell[line][p] = i;
         }
     }
 
-    private void markPathGems(int r, int c, Direction d, boolean[][] gemReachable) {
-        while (true) {
-            r += d.dx;
-            c += d.dy;
-            if (!inBounds(r, c) || grid[r][c].wall) break;
-            if (grid[r][c].gem) gemReachable[r][c] = true;
-            if (grid[r][c].stop || grid[r][c].mine) break;
+    private void buildLinePlanes() {
+        for (int o = COLUMNS; o <= ANTI_DIAGONALS; o++) {
+            if (gemLines[o] == null) {
+                gemLines[o] = new long[gemBits.length];
+                shieldLines[o] = new long[shieldBits.length];
+            } else {
+                Arrays.fill(gemLines[o], 0);
+                Arrays.fill(shieldLines[o], 0);
+            }
+            for (int i = nextSetBit(gemBits, 0); i >= 0; i = nextSetBit(gemBits, i + 1))
+                set(gemLines[o], linePos(o, i));
+            for (int i = nextSetBit(shieldBits, 0); i >= 0; i = nextSetBit(shieldBits, i + 1))
+                set(shieldLines[o], linePos(o, i));
         }
     }
 
-    private static class Point {
-        int r, c;
-        Point(int r, int c) { this.r = r; this.c = c; }
+    // Walls, stops and mines never change during a game, so every slide endpoint is
+    // fixed. Cells are visited against the direction of travel so the neighbour's
+    // entry is always ready to be reused.
+    private void buildJumpTable() {
+        for (Direction d : Direction.values()) {
+            int o = d.ordinal();
+            int step = d.dx * cols + d.dy;
+            for (int rr = 0; rr < rows; rr++) {
+                int r = d.dx > 0 ? rows - 1 - rr : rr;
+                for (int cc = 0; cc < cols; cc++) {
+                    int c = d.dy > 0 ? cols - 1 - cc : cc;
+                    int i = index(r, c);
+                    int next = i + step;
+                    int entry;
+                    if (!inBounds(r + d.dx, c + d.dy) || test(wallBits, next)) entry = i << 1;
+                    else if (test(mineBits, next)) entry = (next << 1) | 1;
+                    else if (test(stopBits, next)) entry = next << 1;
+                    else entry = jump[(next << 3) + o];
+                    jump[(i << 3) + o] = entry;
+                }
+            }
+        }
+    }
+
+    private void pruneUnreachableGems() {
+        long[] visited = new long[gemBits.length];
+        long[] gemReachable = new long[gemBits.length];
+        int[] queue = new int[rows * cols];
+        int head = 0, tail = 0;
+
+        queue[tail++] = index(humanRow, humanCol);
+        set(visited, index(humanRow, humanCol));
+
+        while (head < tail) {
+            int p = queue[head++];
+            for (Direction d : Direction.values()) {
+                int entry = jump[(p << 3) + d.ordinal()];
+                if (jumpHitsMine(entry)) continue;
+                int next = jumpIndex(entry);
+                if (!test(visited, next)) {
+                    set(visited, next);
+                    queue[tail++] = next;
+                }
+                markPathGems(p, d, gemReachable);
+            }
+        }
+
+        for (int w = 0; w < gemBits.length; w++) {
+            gemBits[w] &= gemReachable[w];
+        }
+    }
+
+    private void markPathGems(int i, Direction d, long[] gemReachable) {
+        int end = jumpIndex(jump[(i << 3) + d.ordinal()]);
+        int step = d.dx * cols + d.dy;
+        while (i != end) {
+            i += step;
+            if (test(gemBits, i)) set(gemReachable, i);
+        }
     }
 
     public boolean inBounds(int r, int c) {
         return r >= 0 && r < rows && c >= 0 && c < cols;
     }
 
-    public SlideResult slide(int sr, int sc, Direction d, boolean mutate) {
-        int r = sr, c = sc;
-        int gems = 0;
-        int shields = 0;
+    public int index(int r, int c) {
+        return r * cols + c;
+    }
+
+    public boolean isWall(int r, int c)   { return test(wallBits, index(r, c)); }
+    public boolean isStop(int r, int c)   { return test(stopBits, index(r, c)); }
+    public boolean isMine(int r, int c)   { return test(mineBits, index(r, c)); }
+    public boolean isGem(int r, int c)    { return test(gemBits, index(r, c)); }
+    public boolean isShield(int r, int c) { return test(shieldBits, index(r, c)); }
 
-        while (true) {
-            int nr = r + d.dx;
-            int nc = c + d.dy;
+    // Packed slide outcome from the jump table; decode with jumpIndex/jumpHitsMine
+    public int jump(int r, int c, Direction d) {
+        return jump[(index(r, c) << 3) + d.ordinal()];
+    }
 
-            if (!inBounds(nr, nc)) break;
-            if (grid[nr][nc].wall) break;
+    public static int jumpIndex(int entry) {
+        return entry >>> 1;
+    }
 
-            r = nr;
-            c = nc;
+    public static boolean jumpHitsMine(int entry) {
+        return (entry & 1) != 0;
+    }
 
-            if (grid[r][c].mine) return new SlideResult(r, c, gems, shields, true);
+    // Compatibility view for painting code: fills a caller-owned Cell from the bit planes
+    public Cell cellAt(int r, int c, Cell out) {
+        int i = index(r, c);
+        out.wall = test(wallBits, i);
+        out.stop = test(stopBits, i);
+        out.mine = test(mineBits, i);
+        out.gem = test(gemBits, i);
+        out.shield = test(shieldBits, i);
+        return out;
+    }
 
-            if (grid[r][c].gem) {
-                gems++;
-                if (mutate) grid[r][c].gem = false;
-            }
+    // Next cell index >= from holding a gem or shield, or -1 when none remain
+    public int nextItem(int from) {
+        int n = rows * cols;
+        if (from >= n) return -1;
+        int w = from >>> 6;
+        long word = (gemBits[w] | shieldBits[w]) & (-1L << from);
+        while (word == 0) {
+            if (++w == gemBits.length) return -1;
+            word = gemBits[w] | shieldBits[w];
+        }
+        int i = (w << 6) + Long.numberOfTrailingZeros(word);
+        return i < n ? i : -1;
+    }
 
-            if (grid[r][c].shield) {
-                shields++;
-                if (mutate) grid[r][c].shield = false;
-            }
+    private static boolean test(long[] bits, int i) {
+        return (bits[i >>> 6] & (1L << i)) != 0;
+    }
+
+    private static void set(long[] bits, int i) {
+        bits[i >>> 6] |= 1L << i;
+    }
+
+    private static void clear(long[] bits, int i) {
+        bits[i >>> 6] &= ~(1L << i);
+    }
+
+    private static int nextSetBit(long[] bits, int from) {
+        int w = from >>> 6;
+        if (w >= bits.length) return -1;
+        long word = bits[w] & (-1L << from);
+        while (word == 0) {
+            if (++w == bits.length) return -1;
+            word = bits[w];
+        }
+        return (w << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    // Population count of bits lo..hi inclusive
+    private static int countRange(long[] bits, int lo, int hi) {
+        if (lo > hi) return 0;
+        int wLo = lo >>> 6, wHi = hi >>> 6;
+        long loMask = -1L << lo;
+        long hiMask = -1L >>> (63 - (hi & 63));
+        if (wLo == wHi) return Long.bitCount(bits[wLo] & loMask & hiMask);
+        int n = Long.bitCount(bits[wLo] & loMask);
+        for (int w = wLo + 1; w < wHi; w++) n += Long.bitCount(bits[w]);
+        return n + Long.bitCount(bits[wHi] & hiMask);
+    }
+
+    private static void andNotRange(long[] bits, int lo, int hi) {
+        int wLo = lo >>> 6, wHi = hi >>> 6;
+        long loMask = -1L << lo;
+        long hiMask = -1L >>> (63 - (hi & 63));
+        if (wLo == wHi) {
+            bits[wLo] &= ~(loMask & hiMask);
+            return;
+        }
+        bits[wLo] &= ~loMask;
+        for (int w = wLo + 1; w < wHi; w++) bits[w] = 0;
+        bits[wHi] &= ~hiMask;
+    }
 
-            if (grid[r][c].stop) break;
+    // Clears the items on a slide path: the path's own layout is cleared with one
+    // masked AND-NOT, the other three layouts bit by bit for each collected cell
+    private void clearPath(long[][] lines, int line, int lo, int hi, boolean shields) {
+        long[] path = lines[line];
+        for (int p = nextSetBit(path, lo); p >= 0 && p <= hi; p = nextSetBit(path, p + 1)) {
+            int i = lineCell(line, p);
+            hash ^= shields ? shieldKeys[i] : gemKeys[i];
+            if (recording) recordCleared(shields ? ~i : i);
+            if (notifying) changeListener.onCellCleared(i / cols, i % cols);
+            for (int o = 0; o < 4; o++)
+                if (o != line) clear(lines[o], linePos(o, i));
         }
-        return new SlideResult(r, c, gems, shields, false);
+        andNotRange(path, lo, hi);
     }
 
+    public SlideResult slide(int sr, int sc, Direction d, boolean mutate) {
+        long s = slidePacked(sr, sc, d, mutate);
+        return new SlideResult(slideRow(s), slideCol(s), slideGems(s), slideShields(s), slideHitMine(s));
+    }
+
+    // Allocation-free slide for search code. The result is packed into one long:
+    // row in bits 0-15, column 16-31, gems 32-46, shields 47-61, hitMine bit 62.
+    public long slidePacked(int sr, int sc, Direction d, boolean mutate) {
+        int i = index(sr, sc);
+        int entry = jump[(i << 3) + d.ordinal()];
+        int end = jumpIndex(entry);
+        boolean hitMine = jumpHitsMine(entry);
+
+        // The path is a contiguous range in its line layout; a mine ends the slide
+        // before anything on its own cell is counted
+        int line = LINE_OF[d.ordinal()];
+        int from = linePos(line, i);
+        int to = linePos(line, end);
+        int lo, hi;
+        if (from <= to) {
+            lo = from + 1;
+            hi = hitMine ? to - 1 : to;
+        } else {
+            lo = hitMine ? to + 1 : to;
+            hi = from - 1;
+        }
+
+        int gems = countRange(gemLines[line], lo, hi);
+        int shields = countRange(shieldLines[line], lo, hi);
+        if (mutate) {
+            if (gems > 0) clearPath(gemLines, line, lo, hi, false);
+            if (shields > 0) clearPath(shieldLines, line, lo, hi, true);
+        }
+        return (end / cols) | ((long) (end % cols) << 16) | ((long) gems << 32)
+                | ((long) shields << 47) | (hitMine ? 1L << 62 : 0L);
+    }
+
+    public static int slideRow(long s)         { return (int) (s & 0xFFFF); }
+    public static int slideCol(long s)         { return (int) ((s >>> 16) & 0xFFFF); }
+    public static int slideGems(long s)        { return (int) ((s >>> 32) & 0x7FFF); }
+    public static int slideShields(long s)     { return (int) ((s >>> 47) & 0x7FFF); }
+    public static boolean slideHitMine(long s) { return (s & (1L << 62)) != 0; }
+
     public void move(boolean human, Direction d) {
+        applyMove(human, d, true);
+    }
+
+    // Make/unmake for search: doMove plays a move like move() but journals everything
+    // it changes, so undoMove can restore the board in O(changes). Listeners are not
+    // notified of journaled moves.
+    public void doMove(boolean human, Direction d) {
+        pushFrame(human);
+        recording = true;
+        applyMove(human, d, false);
+        recording = false;
+    }
+
+    public void undoMove() {
+        if (undoDepth == 0) throw new IllegalStateException("No journaled move to undo");
+        undoDepth--;
+        int f = undoDepth * FRAME;
+        int mark = undoFrames[f];
+        while (undoCellCount > mark) {
+            int cell = undoCells[--undoCellCount];
+            if (cell >= 0) restoreItem(gemLines, cell);
+            else restoreItem(shieldLines, ~cell);
+        }
+        if (undoFrames[f + 1] == 1) {
+            humanRow = undoFrames[f + 2];
+            humanCol = undoFrames[f + 3];
+            humanScore = undoFrames[f + 4];
+            humanShields = undoFrames[f + 5];
+        } else {
+            cpuRow = undoFrames[f + 2];
+            cpuCol = undoFrames[f + 3];
+            cpuScore = undoFrames[f + 4];
+            cpuShields = undoFrames[f + 5];
+        }
+        gameOver = undoFrames[f + 6] == 1;
+        humanToMove = undoFrames[f + 7] == 1;
+        hash = undoHashes[undoDepth];
+        gameResult = undoResults[undoDepth];
+        undoResults[undoDepth] = null;
+    }
+
+    private void pushFrame(boolean human) {
+        if ((undoDepth + 1) * FRAME > undoFrames.length) {
+            undoFrames = Arrays.copyOf(undoFrames, undoFrames.length * 2);
+            undoResults = Arrays.copyOf(undoResults, undoResults.length * 2);
+            undoHashes = Arrays.copyOf(undoHashes, undoHashes.length * 2);
+        }
+        int f = undoDepth * FRAME;
+        undoFrames[f] = undoCellCount;
+        undoFrames[f + 1] = human ? 1 : 0;
+        undoFrames[f + 2] = human ? humanRow : cpuRow;
+        undoFrames[f + 3] = human ? humanCol : cpuCol;
+        undoFrames[f + 4] = human ? humanScore : cpuScore;
+        undoFrames[f + 5] = human ? humanShields : cpuShields;
+        undoFrames[f + 6] = gameOver ? 1 : 0;
+        undoFrames[f + 7] = humanToMove ? 1 : 0;
+        undoHashes[undoDepth] = hash;
+        undoResults[undoDepth] = gameResult;
+        undoDepth++;
+    }
+
+    private void recordCleared(int cell) {
+        if (undoCellCount == undoCells.length) undoCells = Arrays.copyOf(undoCells, undoCells.length * 2);
+        undoCells[undoCellCount++] = cell;
+    }
+
+    private void restoreItem(long[][] lines, int i) {
+        for (int o = 0; o < 4; o++) set(lines[o], linePos(o, i));
+    }
+
+    private void applyMove(boolean human, Direction d, boolean notify) {
         int sr = human ? humanRow : cpuRow;
         int sc = human ? humanCol : cpuCol;
+        int oldShields = human ? humanShields : cpuShields;
         
-        SlideResult res = slide(sr, sc, d, true);
+        notifying = notify && changeListener != null;
+        long res = slidePacked(sr, sc, d, true);
+        notifying = false;
+        int er = slideRow(res), ec = slideCol(res);
+        boolean hitMine = slideHitMine(res);
 
-        if (res.r == sr && res.c == sc && !res.hitMine) return;
+        if (er == sr && ec == sc && !hitMine) return;
 
         if (human) {
-            humanScore += res.gems;
-            humanShields += res.shields;
+            humanScore += slideGems(res);
+            humanShields += slideShields(res);
         } else {
-            cpuScore += res.gems;
-            cpuShields += res.shields;
+            cpuScore += slideGems(res);
+            cpuShields += slideShields(res);
         }
 
         int currentShields = human ? humanShields : cpuShields;
 
-        if (res.hitMine) {
+        if (hitMine) {
             if (currentShields > 0) {
                 if (human) {
                     humanShields--;
-                    humanRow = res.r;
-                    humanCol = res.c;
+                    humanRow = er;
+                    humanCol = ec;
                 } else {
                     cpuShields--;
-                    cpuRow = res.r;
-                    cpuCol = res.c;
+                    cpuRow = er;
+                    cpuCol = ec;
                 }
                 
                 // Trigger animation
-                if (shieldBreakListener != null) {
-                    shieldBreakListener.onShieldBreak(res.r, res.c);
+                if (notify && shieldBreakListener != null) {
+                    shieldBreakListener.onShieldBreak(er, ec);
                 }
             } else {
                 gameOver = true;
@@ -210,31 +723,99 @@ public class BoardModel {
             }
         } else {
             if (human) {
-                humanRow = res.r;
-                humanCol = res.c;
+                humanRow = er;
+                humanCol = ec;
             } else {
-                cpuRow = res.r;
-                cpuCol = res.c;
+                cpuRow = er;
+                cpuCol = ec;
             }
         }
+        rehashMover(human, index(sr, sc), oldShields);
+
+        if (notify && changeListener != null) {
+            int nr = human ? humanRow : cpuRow;
+            int nc = human ? humanCol : cpuCol;
+            int newShields = human ? humanShields : cpuShields;
+            if (nr != sr || nc != sc) changeListener.onPlayerMoved(human, sr, sc, nr, nc);
+            if (newShields != oldShields) changeListener.onShieldsChanged(human, newShields);
+        }
+    }
+
+    // Items were already hashed out as they were cleared; this folds in the mover's
+    // new position and shield count and hands the turn to the other side
+    private void rehashMover(boolean human, int oldIndex, int oldShields) {
+        long[] posKeys = human ? humanKeys : cpuKeys;
+        long[] countKeys = human ? HUMAN_SHIELD_KEYS : CPU_SHIELD_KEYS;
+        int newIndex = human ? index(humanRow, humanCol) : index(cpuRow, cpuCol);
+        int newShields = human ? humanShields : cpuShields;
+        hash ^= posKeys[oldIndex] ^ posKeys[newIndex];
+        hash ^= countKeys[oldShields] ^ countKeys[newShields];
+        if (humanToMove == human) {
+            humanToMove = !human;
+            hash ^= SIDE_KEY;
+        }
+    }
+
+    // Exchanges the two players, so a strategy written for the CPU side can choose
+    // the human's move; calling it again restores the board exactly
+    public void swapSides() {
+        if (undoDepth != 0) throw new IllegalStateException("Cannot swap sides with journaled moves pending");
+        hash ^= playerHash();
+        int t;
+        t = humanRow; humanRow = cpuRow; cpuRow = t;
+        t = humanCol; humanCol = cpuCol; cpuCol = t;
+        t = humanScore; humanScore = cpuScore; cpuScore = t;
+        t = humanShields; humanShields = cpuShields; cpuShields = t;
+        humanToMove = !humanToMove;
+        hash ^= playerHash() ^ SIDE_KEY;
+    }
+
+    private long playerHash() {
+        return humanKeys[index(humanRow, humanCol)] ^ cpuKeys[index(cpuRow, cpuCol)]
+             ^ HUMAN_SHIELD_KEYS[humanShields] ^ CPU_SHIELD_KEYS[cpuShields];
+    }
+
+    public int gemCount() {
+        int n = 0;
+        for (long word : gemBits) n += Long.bitCount(word);
+        return n;
+    }
+
+    public int shieldCount() {
+        int n = 0;
+        for (long word : shieldBits) n += Long.bitCount(word);
+        return n;
     }
 
     private boolean anyGemLeft() {
-        for (int r = 0; r < rows; r++)
-            for (int c = 0; c < cols; c++)
-                if (grid[r][c].gem) return true;
+        for (long word : gemBits)
+            if (word != 0) return true;
         return false;
     }
 
     public boolean hasAnySafeMove(int r, int c, int shields) {
+        int i = index(r, c);
         for (Direction d : Direction.values()) {
-            SlideResult sim = slide(r, c, d, false);
-            boolean survivable = !sim.hitMine || (shields > 0);
-            if (survivable && (sim.r != r || sim.c != c)) return true;
+            int entry = jump[(i << 3) + d.ordinal()];
+            boolean survivable = !jumpHitsMine(entry) || (shields > 0);
+            if (survivable && jumpIndex(entry) != i) return true;
         }
         return false;
     }
 
+    // Fills out with the moves from (r, c) that change the position without running
+    // into a mine unshielded; returns how many there are
+    public int safeMoves(int r, int c, int shields, Direction[] out) {
+        int i = index(r, c);
+        int n = 0;
+        for (Direction d : Direction.values()) {
+            int entry = jump[(i << 3) + d.ordinal()];
+            boolean survivable = !jumpHitsMine(entry) || (shields > 0);
+            if (survivable && jumpIndex(entry) != i) out[n++] = d;
+        }
+        return n;
+    }
+
     public void checkEndGame() {
         if (!anyGemLeft()) {
             gameOver = true;
@@ -266,4 +847,13 @@ public class BoardModel {
     public interface ShieldBreakListener {
         void onShieldBreak(int row, int col);
     }
+
+    // Fine-grained changes made by move(); journaled search moves report nothing
+    public interface BoardChangeListener {
+        // A gem or shield was collected from this cell
+        void onCellCleared(int row, int col);
+        void onPlayerMoved(boolean human, int fromRow, int fromCol, int toRow, int toCol);
+        // The side's shield count changed, by picking shields up or breaking one on a mine
+        void onShieldsChanged(boolean human, int shields);
+    }
 }
\ No newline at end of file
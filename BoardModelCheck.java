@@ -0,0 +1,133 @@
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+/**
+ * Headless check of BoardModel's search API. It plays random journaled moves on
+ * seeded boards and verifies that undoMove restores every item, position, score,
+ * shield count and hash exactly, then measures that slidePacked and
+ * doMove/undoMove allocate nothing once warmed up. Exits with status 1 on the
+ * first failure.
+ *
+ * Usage: java BoardModelCheck [boards=N] [size=N] [seed=N] [calls=N]
+ */
+public class BoardModelCheck {
+
+    public static void main(String[] args) {
+        Map<String, String> opts = Simulator.options(args, 0);
+        int boards = Integer.parseInt(opts.getOrDefault("boards", "200"));
+        int size = Integer.parseInt(opts.getOrDefault("size", "12"));
+        long seed = Long.parseLong(opts.getOrDefault("seed", "1"));
+        int calls = Integer.parseInt(opts.getOrDefault("calls", "1000000"));
+
+        checkUndo(boards, size, seed);
+        checkAllocation(size, seed, calls);
+        System.out.println("ok");
+    }
+
+    private static void checkUndo(int boards, int size, long seed) {
+        SplittableRandom rand = new SplittableRandom(seed);
+        Direction[] dirs = Direction.values();
+        Difficulty[] levels = Difficulty.values();
+        long moves = 0;
+        for (int b = 0; b < boards; b++) {
+            BoardModel m = BoardGenerator.generate(size, size, levels[b % levels.length], BoardGenerator.seedFor(seed, b));
+            // Random prefix of ordinary moves, so items are already missing and shields held
+            for (int k = rand.nextInt(10); k > 0; k--) m.move(rand.nextBoolean(), dirs[rand.nextInt(dirs.length)]);
+
+            // Random walk of journaled moves and undos, checked against a snapshot at every step
+            Deque<String> before = new ArrayDeque<>();
+            String start = state(m);
+            for (int k = 0; k < 60; k++) {
+                if (!before.isEmpty() && rand.nextInt(3) == 0) {
+                    m.undoMove();
+                    expect(state(m).equals(before.pop()), "undoMove did not restore board " + b + " after " + k + " steps");
+                } else {
+                    before.push(state(m));
+                    m.doMove(rand.nextBoolean(), dirs[rand.nextInt(dirs.length)]);
+                    moves++;
+                }
+            }
+            while (!before.isEmpty()) {
+                m.undoMove();
+                expect(state(m).equals(before.pop()), "undoMove did not restore board " + b + " while unwinding");
+            }
+            expect(state(m).equals(start), "board " + b + " differs after unwinding every move");
+        }
+        System.out.printf("undo: %d boards, %d journaled moves restored%n", boards, moves);
+    }
+
+    // Everything a move can change, including every slide outcome, in one string
+    private static String state(BoardModel m) {
+        expect(m.hash() == m.computeHash(), "incremental hash drifted from computeHash()");
+        StringBuilder sb = new StringBuilder();
+        for (int r = 0; r < m.rows; r++) {
+            for (int c = 0; c < m.cols; c++) {
+                sb.append(m.isGem(r, c) ? 'g' : '.').append(m.isShield(r, c) ? 's' : '.');
+                if (m.isWall(r, c)) continue;
+                for (Direction d : Direction.values()) sb.append(m.slidePacked(r, c, d, false)).append(',');
+            }
+        }
+        sb.append(m.humanRow).append(',').append(m.humanCol).append(',').append(m.cpuRow).append(',').append(m.cpuCol)
+          .append('|').append(m.humanScore).append(',').append(m.cpuScore)
+          .append('|').append(m.humanShields).append(',').append(m.cpuShields)
+          .append('|').append(m.gameOver).append(m.gameResult).append(m.humanToMove).append(m.hash());
+        return sb.toString();
+    }
+
+    private static void checkAllocation(int size, long seed, int calls) {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+            System.out.println("allocation: skipped, this JVM does not report allocated bytes");
+            return;
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        BoardModel m = BoardGenerator.generate(size, size, Difficulty.HARD, seed);
+
+        // The first rounds warm the JIT up and grow the undo journal to its working size
+        long sink = 0;
+        for (int round = 0; round < 3; round++) sink += slides(m, calls) + moves(m, calls);
+
+        long before = threads.getThreadAllocatedBytes(thread);
+        sink += slides(m, calls);
+        long slideBytes = threads.getThreadAllocatedBytes(thread) - before;
+
+        before = threads.getThreadAllocatedBytes(thread);
+        sink += moves(m, calls);
+        long moveBytes = threads.getThreadAllocatedBytes(thread) - before;
+
+        System.out.printf("allocation: slidePacked %.3f bytes/call, doMove+undoMove %.3f bytes/call (%d)%n",
+                (double) slideBytes / calls, (double) moveBytes / calls, sink & 1);
+        // A few bytes of slack for the JVM's own bookkeeping during the measurement
+        expect(slideBytes < 1024, "slidePacked allocated " + slideBytes + " bytes over " + calls + " calls");
+        expect(moveBytes < 1024, "doMove/undoMove allocated " + moveBytes + " bytes over " + calls + " calls");
+    }
+
+    private static long slides(BoardModel m, int calls) {
+        Direction[] dirs = Direction.values();
+        int inner = m.rows - 2;
+        long sink = 0;
+        for (int k = 0; k < calls; k++) {
+            sink += m.slidePacked(1 + k % inner, 1 + (k / inner) % inner, dirs[k & 7], false);
+        }
+        return sink;
+    }
+
+    // Four plies deep and back, the way the search walks the tree
+    private static long moves(BoardModel m, int calls) {
+        Direction[] dirs = Direction.values();
+        long sink = 0;
+        for (int k = 0; k < calls; k += 4) {
+            for (int ply = 0; ply < 4; ply++) m.doMove((ply & 1) == 0, dirs[(k + ply * 3) & 7]);
+            sink += m.hash();
+            for (int ply = 0; ply < 4; ply++) m.undoMove();
+        }
+        return sink;
+    }
+
+    private static void expect(boolean condition, String failure) {
+        if (!condition) {
+            System.err.println("FAIL: " + failure);
+            System.exit(1);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,44 @@
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Keeps a few ready-made boards per difficulty so that New Game does not have to
+ * generate one on the Event Dispatch Thread. Boards are built and their slide
+ * tables computed on a background daemon thread. Each take() is refilled in the
+ * background, and an empty pool falls back to building the board on the spot.
+ */
+public class BoardPool {
+
+    private final int rows, cols, perLevel;
+    private final Map<Difficulty, BlockingQueue<BoardModel>> ready = new EnumMap<>(Difficulty.class);
+    private final ExecutorService builder = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "inertia-boards");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+
+    public BoardPool(int rows, int cols, int perLevel) {
+        this.rows = rows;
+        this.cols = cols;
+        this.perLevel = perLevel;
+        for (Difficulty d : Difficulty.values()) {
+            ready.put(d, new ArrayBlockingQueue<>(perLevel));
+            for (int i = 0; i < perLevel; i++) refill(d);
+        }
+    }
+
+    public BoardModel take(Difficulty level) {
+        BoardModel board = ready.get(level).poll();
+        refill(level);
+        return board != null ? board : new BoardModel(rows, cols, level);
+    }
+
+    private void refill(Difficulty level) {
+        BlockingQueue<BoardModel> queue = ready.get(level);
+        builder.execute(() -> {
+            if (queue.size() < perLevel) queue.offer(new BoardModel(rows, cols, level));
+        });
+    }
+}
\ No newline at end of file
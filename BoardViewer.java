@@ -0,0 +1,31 @@
+import java.util.*;
+import javax.swing.*;
+
+/**
+ * Opens one generated board in a window to inspect it; the wheel zooms and
+ * dragging pans. Kept apart from BoardGenerator so the headless tools never
+ * load AWT or Swing.
+ *
+ * Usage: java BoardViewer [index=I] [seed=N] [size=N] [board=LEVEL]
+ * shows board I of the batch BoardGenerator builds with the same seed, size and level.
+ */
+public class BoardViewer {
+
+    public static void main(String[] args) {
+        Map<String, String> opts = Simulator.options(args, 0);
+        long index = Long.parseLong(opts.getOrDefault("index", "0"));
+        long seed = Long.parseLong(opts.getOrDefault("seed", "1"));
+        int size = Integer.parseInt(opts.getOrDefault("size", "12"));
+        Difficulty level = Difficulty.valueOf(opts.getOrDefault("board", "MEDIUM").toUpperCase());
+
+        BoardModel board = BoardGenerator.generate(size, size, level, BoardGenerator.seedFor(seed, index));
+        SwingUtilities.invokeLater(() -> {
+            JFrame frame = new JFrame(String.format("Board %d of seed %d, %dx%d %s", index, seed, size, size, level));
+            frame.add(new GridPanel(board));
+            frame.pack();
+            frame.setLocationRelativeTo(null);
+            frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+            frame.setVisible(true);
+        });
+    }
+}
\ No newline at end of file
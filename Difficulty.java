@@ -1,5 +1,7 @@
 public enum Difficulty {
     EASY,
     MEDIUM,
-    HARD
+    HARD,
+    EXPERT,
+    MASTER
 }
\ No newline at end of file
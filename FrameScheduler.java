@@ -0,0 +1,79 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Animation clock shared by every GridPanel. It ticks on the EDT only while some
+ * client has an animation queued, and stops as soon as none remain. Animations
+ * advance in fixed 30 ms steps measured with System.nanoTime, and the timer fires
+ * once per step, so an animating panel wakes the EDT about 33 times a second. A
+ * late tick runs the steps it missed instead of slowing the animation down.
+ */
+public final class FrameScheduler {
+
+    public interface Client {
+        // Advances one fixed step; false once nothing is left to animate
+        boolean step();
+
+        // Called once per tick after that tick's steps
+        void render();
+    }
+
+    public static final long STEP_NANOS = 30_000_000L;
+    // After a longer stall the steps beyond these are dropped, so the animation
+    // falls behind the clock rather than fast-forwarding to catch up
+    private static final int MAX_STEPS_PER_TICK = 4;
+    private static final int TICK_MILLIS = (int) (STEP_NANOS / 1_000_000L);
+
+    private static final FrameScheduler INSTANCE = new FrameScheduler();
+
+    private final List<Client> clients = new ArrayList<>();
+    private final javax.swing.Timer timer = new javax.swing.Timer(TICK_MILLIS, e -> tick());
+    private long lastTick;
+    private long backlog;
+
+    private FrameScheduler() {
+    }
+
+    public static FrameScheduler get() {
+        return INSTANCE;
+    }
+
+    // EDT only. Scheduling a client that is already ticking does nothing.
+    public void schedule(Client client) {
+        if (!clients.contains(client)) clients.add(client);
+        if (!timer.isRunning()) {
+            lastTick = System.nanoTime();
+            backlog = 0;
+            timer.start();
+        }
+    }
+
+    public void cancel(Client client) {
+        clients.remove(client);
+        if (clients.isEmpty()) timer.stop();
+    }
+
+    public boolean isRunning() {
+        return timer.isRunning();
+    }
+
+    private void tick() {
+        long now = System.nanoTime();
+        backlog += now - lastTick;
+        lastTick = now;
+        // Rounded, so a tick that fires a little early still runs its step; the
+        // backlog then goes slightly negative and the next tick makes up for it
+        int steps = (int) Math.min((backlog + STEP_NANOS / 2) / STEP_NANOS, MAX_STEPS_PER_TICK);
+        if (steps == 0) return;
+        backlog = (steps == MAX_STEPS_PER_TICK) ? 0 : backlog - steps * STEP_NANOS;
+
+        for (int i = clients.size() - 1; i >= 0; i--) {
+            Client client = clients.get(i);
+            boolean active = true;
+            for (int s = 0; s < steps && active; s++) active = client.step();
+            client.render();
+            if (!active) clients.remove(i);
+        }
+        if (clients.isEmpty()) timer.stop();
+    }
+}
\ No newline at end of file
@@ -1,16 +1,89 @@
-[file name]: Greedy.java
-[file content begin]
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * The original Easy, Medium and Hard CPU players. An instance plays one level
+ * and owns its search scratch state: the BFS queue and visited set reused by
+ * Medium mode and the Hard mode transposition tables.
+ */
+public class Greedy implements MoveStrategy {
+
+    // Hard mode deepens its lookahead until the per-turn budget runs out
+    private static final int HARD_MAX_DEPTH = 64;
+    private static volatile long hardTimeMillis = 50;
+    private static volatile long hardNodeLimit = Long.MAX_VALUE;
+
+    // Hard mode scores its root moves in parallel, one task per root move and no
+    // shared bound, so a turn never keeps more than one thread per direction busy
+    private static final ForkJoinPool HARD_POOL = new ForkJoinPool(
+            Math.min(Runtime.getRuntime().availableProcessors(), Direction.values().length));
+
+    private final Difficulty level;
+    private final Random random = new Random();
+    private final StateQueue bfsQueue = new StateQueue();
+    private final IntSet bfsVisited = new IntSet();
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    // Hard mode search state, one worker per root move. Lookahead results are keyed by
+    // board state; keys include the board layout so entries survive across turns
+    // without leaking between games. Each root move searches its subtree against its
+    // own table, so what one parallel task finds never depends on how far the others
+    // have got, and the result is the same as running the tasks one after another.
+    // The price is that transpositions are never shared between root moves: two root
+    // moves whose lines converge on the same stop cell each search it from scratch.
+    // Only a Hard mode player has workers; the other levels never search this way.
+    private final HardWorker[] hardWorkers;
+    private static final long LOOKAHEAD_KEY = 0x5DEECE66DL * 0x9E3779B97F4A7C15L;
+    private volatile int lastHardDepth = 0;
+
+    public Greedy(Difficulty level) {
+        if (level.compareTo(Difficulty.HARD) > 0) {
+            throw new IllegalArgumentException("Greedy plays up to Hard, not " + level);
+        }
+        this.level = level;
+        if (level == Difficulty.HARD) {
+            hardWorkers = new HardWorker[DIRECTIONS.length];
+            for (int k = 0; k < hardWorkers.length; k++) hardWorkers[k] = new HardWorker();
+        } else {
+            hardWorkers = null;
+        }
+    }
+
+    // Per-turn limits for Hard mode; millis <= 0 disables the time limit
+    public static void setHardBudget(long millis, long maxNodes) {
+        hardTimeMillis = millis;
+        hardNodeLimit = maxNodes;
+    }
+
+    @Override
+    public void newGame(long seed) {
+        random.setSeed(seed);
+        if (hardWorkers != null) {
+            for (HardWorker w : hardWorkers) w.table.clear();
+        }
+    }
+
+    // Deepest iteration the last Hard mode turn completed
+    public int lastHardDepth() {
+        return lastHardDepth;
+    }
 
-public class Greedy {
+    // Table the Hard mode lookahead uses below this root move
+    public TranspositionTable hardTable(Direction rootMove) {
+        return hardWorkers[rootMove.ordinal()].table;
+    }
 
-    // Depth of lookahead for Hard mode
-    private static final int HARD_DEPTH = 4;
+    @Override
+    public String name() {
+        return level.name().toLowerCase();
+    }
 
-    public static Direction choose(BoardModel m, Difficulty level) {
+    @Override
+    public Direction chooseMove(BoardModel m) {
         switch (level) {
             case EASY:   return playEasyWithDivideConquer(m);
-            case MEDIUM: return playMediumWithDivideConquer(m);
             case HARD:   return playHardWithDivideConquer(m);
             default:     return playMediumWithDivideConquer(m);
         }
@@ -22,12 +95,12 @@ public class Greedy {
      * 2. Evaluate each quadrant separately
      * 3. Combine results to choose best direction
      */
-    private static Direction playEasyWithDivideConquer(BoardModel m) {
+    private Direction playEasyWithDivideConquer(BoardModel m) {
         // Divide: Get directions that lead to different board regions
         List<Direction> allDirections = Arrays.asList(Direction.values());
         
         // Conquer: Evaluate each direction using simple greedy logic
-        Map<Direction, Integer> directionScores = new HashMap<>();
+        Map<Direction, Integer> directionScores = new EnumMap<>(Direction.class);
         
         for (Direction d : allDirections) {
             int score = evaluateEasyDirection(m, d);
@@ -53,12 +126,12 @@ public class Greedy {
         return bestDir;
     }
     
-    private static int evaluateEasyDirection(BoardModel m, Direction d) {
-        BoardModel.SlideResult res = m.slide(m.cpuRow, m.cpuCol, d, false);
+    private int evaluateEasyDirection(BoardModel m, Direction d) {
+        long res = m.slidePacked(m.cpuRow, m.cpuCol, d, false);
         
         // Safety check
-        boolean dead = res.hitMine && (m.cpuShields == 0);
-        boolean moved = (res.r != m.cpuRow || res.c != m.cpuCol);
+        boolean dead = BoardModel.slideHitMine(res) && (m.cpuShields == 0);
+        boolean moved = (BoardModel.slideRow(res) != m.cpuRow || BoardModel.slideCol(res) != m.cpuCol);
         
         if (dead || !moved) {
             return -1000; // Penalize dangerous or useless moves
@@ -66,11 +139,11 @@ public class Greedy {
         
         // Score based on immediate rewards
         int score = 0;
-        score += res.gems * 100;     // Gems are valuable
-        score += res.shields * 50;    // Shields are valuable but less than gems
+        score += BoardModel.slideGems(res) * 100;     // Gems are valuable
+        score += BoardModel.slideShields(res) * 50;    // Shields are valuable but less than gems
         
         // Bonus for moving into new areas (exploration)
-        if (res.gems == 0 && res.shields == 0) {
+        if (BoardModel.slideGems(res) == 0 && BoardModel.slideShields(res) == 0) {
             score += 10; // Small reward for exploration
         }
         
@@ -81,7 +154,7 @@ public class Greedy {
      * MEDIUM MODE with Divide & Conquer:
      * Uses BFS but divides search space into promising regions first
      */
-    private static Direction playMediumWithDivideConquer(BoardModel m) {
+    private Direction playMediumWithDivideConquer(BoardModel m) {
         // Divide: Identify promising regions with gems
         List<Direction> promisingDirections = getPromisingDirections(m);
         
@@ -94,14 +167,14 @@ public class Greedy {
         return playMediumOriginal(m);
     }
     
-    private static List<Direction> getPromisingDirections(BoardModel m) {
+    private List<Direction> getPromisingDirections(BoardModel m) {
         List<Direction> promising = new ArrayList<>();
         
         for (Direction d : Direction.values()) {
-            BoardModel.SlideResult res = m.slide(m.cpuRow, m.cpuCol, d, false);
+            int end = BoardModel.jumpIndex(m.jump(m.cpuRow, m.cpuCol, d));
             
             // Check if direction leads to area with potential
-            if (leadsToPromisingArea(m, res.r, res.c, d)) {
+            if (leadsToPromisingArea(m, end / m.cols, end % m.cols, d)) {
                 promising.add(d);
             }
         }
@@ -109,7 +182,7 @@ public class Greedy {
         return promising;
     }
     
-    private static boolean leadsToPromisingArea(BoardModel m, int startR, int startC, Direction dir) {
+    private boolean leadsToPromisingArea(BoardModel m, int startR, int startC, Direction dir) {
         // Quick heuristic: check if this direction eventually leads to gems
         // by scanning a few steps ahead
         int r = startR;
@@ -119,15 +192,15 @@ public class Greedy {
             r += dir.dx;
             c += dir.dy;
             
-            if (!m.inBounds(r, c) || m.grid[r][c].wall) {
+            if (!m.inBounds(r, c) || m.isWall(r, c)) {
                 break;
             }
             
-            if (m.grid[r][c].gem) {
+            if (m.isGem(r, c)) {
                 return true;
             }
             
-            if (m.grid[r][c].stop || m.grid[r][c].mine) {
+            if (m.isStop(r, c) || m.isMine(r, c)) {
                 break;
             }
         }
@@ -135,45 +208,71 @@ public class Greedy {
         return false;
     }
     
-    private static Direction bfsToGem(BoardModel m, List<Direction> startDirections) {
-        Queue<Node> queue = new LinkedList<>();
-        Set<String> visited = new HashSet<>();
+    private Direction bfsToGem(BoardModel m, List<Direction> startDirections) {
+        StateQueue queue = bfsQueue;
+        IntSet visited = bfsVisited;
+        queue.clear();
+        visited.clear();
+        int cells = m.rows * m.cols;
         
         // Start BFS from multiple promising directions
         for (Direction startDir : startDirections) {
-            BoardModel.SlideResult firstStep = m.slide(m.cpuRow, m.cpuCol, startDir, false);
+            long firstStep = m.slidePacked(m.cpuRow, m.cpuCol, startDir, false);
             
             // Safety check
-            if (firstStep.hitMine && m.cpuShields == 0) {
+            if (BoardModel.slideHitMine(firstStep) && m.cpuShields == 0) {
                 continue;
             }
             
-            int startShields = m.cpuShields + firstStep.shields;
-            if (firstStep.hitMine) {
+            int startShields = m.cpuShields + BoardModel.slideShields(firstStep);
+            if (BoardModel.slideHitMine(firstStep)) {
                 startShields--; // Use shield
             }
             
-            Node startNode = new Node(firstStep.r, firstStep.c, startShields, startDir);
-            queue.add(startNode);
-            visited.add(startNode.key());
+            int startState = startShields * cells + m.index(BoardModel.slideRow(firstStep), BoardModel.slideCol(firstStep));
+            queue.add(startState, startDir.ordinal());
+            visited.add(startState);
             
             // If first step already collects a gem, return it
-            if (firstStep.gems > 0) {
+            if (BoardModel.slideGems(firstStep) > 0) {
                 return startDir;
             }
         }
         
-        // Continue BFS
+        Direction found = searchGem(m, queue, visited);
+        if (found != null) return found;
+        
+        // Fallback to original if BFS on promising directions fails
+        return playMediumOriginal(m);
+    }
+
+    // Breadth-first search over (cell, shields) states until a slide collects a gem.
+    // States are packed as shields * cells + cell index; the queue carries the first
+    // move of each state's path, or -1 while still at the root.
+    private Direction searchGem(BoardModel m, StateQueue queue, IntSet visited) {
+        Direction[] dirs = Direction.values();
+        int cells = m.rows * m.cols;
+        // Slides here do not remove what they pass over, so a loop through a shield
+        // would count it again forever; capping at every shield on the board keeps
+        // the state space finite when no gem is reachable
+        int maxShields = m.cpuShields + m.shieldCount();
+
         while (!queue.isEmpty()) {
-            Node curr = queue.poll();
-            
-            for (Direction d : Direction.values()) {
-                BoardModel.SlideResult res = m.slide(curr.r, curr.c, d, false);
+            checkCancelled();
+            int state = queue.peekState();
+            int firstDir = queue.peekFirstDir();
+            queue.poll();
+            int cell = state % cells;
+            int r = cell / m.cols, c = cell % m.cols;
+            int shields = state / cells;
+            
+            for (Direction d : dirs) {
+                long res = m.slidePacked(r, c, d, false);
                 
-                int nextShields = curr.shields + res.shields;
+                int nextShields = shields + BoardModel.slideShields(res);
                 boolean isSafe = true;
                 
-                if (res.hitMine) {
+                if (BoardModel.slideHitMine(res)) {
                     if (nextShields > 0) {
                         nextShields--;
                     } else {
@@ -182,31 +281,29 @@ public class Greedy {
                 }
                 
                 if (!isSafe) continue;
-                if (res.r == curr.r && res.c == curr.c && res.gems == 0) continue;
+                int nr = BoardModel.slideRow(res), nc = BoardModel.slideCol(res);
+                if (nr == r && nc == c && BoardModel.slideGems(res) == 0) continue;
                 
-                Direction firstMove = curr.firstDir;
+                int firstMove = (firstDir < 0) ? d.ordinal() : firstDir;
                 
-                if (res.gems > 0) {
-                    return firstMove;
+                if (BoardModel.slideGems(res) > 0) {
+                    return dirs[firstMove];
                 }
                 
-                Node nextNode = new Node(res.r, res.c, nextShields, firstMove);
-                if (!visited.contains(nextNode.key())) {
-                    visited.add(nextNode.key());
-                    queue.add(nextNode);
+                int nextState = Math.min(nextShields, maxShields) * cells + m.index(nr, nc);
+                if (visited.add(nextState)) {
+                    queue.add(nextState, firstMove);
                 }
             }
         }
-        
-        // Fallback to original if BFS on promising directions fails
-        return playMediumOriginal(m);
+        return null;
     }
 
     /**
      * HARD MODE with Divide & Conquer:
      * Divides the lookahead search into subproblems
      */
-    private static Direction playHardWithDivideConquer(BoardModel m) {
+    private Direction playHardWithDivideConquer(BoardModel m) {
         // Divide: Cluster potential targets (gems and shields)
         List<TargetCluster> clusters = clusterTargets(m);
         
@@ -214,45 +311,88 @@ public class Greedy {
             return playHardOriginal(m);
         }
         
-        // Evaluate each cluster independently
-        Direction bestDir = null;
-        double bestScore = -Double.MAX_VALUE;
-        
+        // Conquer: Evaluate paths to each cluster independently
+        List<Direction> candidates = new ArrayList<>();
         for (TargetCluster cluster : clusters) {
-            // Conquer: Evaluate paths to this cluster
             Direction clusterDir = evaluateCluster(m, cluster);
+            if (clusterDir != null && !candidates.contains(clusterDir)) {
+                candidates.add(clusterDir);
+            }
+        }
+        
+        // The cluster picks alone often leave out the best move, so every other move
+        // that is safe and goes somewhere is searched as well. The picks come first
+        // and win ties.
+        for (Direction d : Direction.values()) {
+            if (!candidates.contains(d) && isUsefulMove(m, d)) {
+                candidates.add(d);
+            }
+        }
+        
+        if (candidates.isEmpty()) {
+            // Fallback to original hard mode
+            return playHardOriginal(m);
+        }
+        
+        // Combine: deepen the lookahead on every candidate until the budget runs
+        // out, keeping the winner of the last iteration that finished. Depth 1 is
+        // always completed so there is a move to return.
+        SearchBudget budget = newHardBudget();
+        Direction bestDir = null;
+        int reached = 0;
+        
+        // The lookahead makes and unmakes moves, so each candidate gets its own board
+        // for the turn; every iteration leaves it as it found it
+        for (Direction d : candidates) hardWorkers[d.ordinal()].board = m.copy();
+        
+        for (int depth = 1; depth <= HARD_MAX_DEPTH; depth++) {
+            SearchBudget limit = (depth == 1) ? SearchBudget.unlimited() : budget;
+            Direction iterationBest = null;
+            double bestScore = -Double.MAX_VALUE;
             
-            if (clusterDir != null) {
+            int iterationDepth = depth;
+            double[] scores = scoreInParallel(candidates.size(), k -> {
                 // Simulate the move and evaluate its quality
-                BoardModel.SlideResult res = m.slide(m.cpuRow, m.cpuCol, clusterDir, false);
-                double score = evaluateMoveScore(m, res, clusterDir, HARD_DEPTH);
-                
-                if (score > bestScore) {
-                    bestScore = score;
-                    bestDir = clusterDir;
+                Direction clusterDir = candidates.get(k);
+                HardWorker worker = hardWorkers[clusterDir.ordinal()];
+                long res = m.slidePacked(m.cpuRow, m.cpuCol, clusterDir, false);
+                return evaluateMoveScore(worker, res, clusterDir, iterationDepth, limit);
+            }, limit);
+            if (limit.isExhausted()) break;
+            
+            for (int k = 0; k < scores.length; k++) {
+                if (scores[k] > bestScore) {
+                    bestScore = scores[k];
+                    iterationBest = candidates.get(k);
                 }
             }
+            bestDir = iterationBest;
+            reached = depth;
         }
         
-        if (bestDir != null) {
-            return bestDir;
-        }
-        
-        // Fallback to original hard mode
-        return playHardOriginal(m);
+        releaseBoards();
+        lastHardDepth = reached;
+        return bestDir;
+    }
+
+    private static boolean isUsefulMove(BoardModel m, Direction d) {
+        long res = m.slidePacked(m.cpuRow, m.cpuCol, d, false);
+        if (BoardModel.slideHitMine(res) && m.cpuShields + BoardModel.slideShields(res) == 0) return false;
+        return BoardModel.slideRow(res) != m.cpuRow || BoardModel.slideCol(res) != m.cpuCol;
+    }
+
+    // Also used by AlphaBeta so Master mode gets the same thinking time per turn
+    static SearchBudget newHardBudget() {
+        return new SearchBudget(hardTimeMillis, hardNodeLimit);
     }
     
-    private static List<TargetCluster> clusterTargets(BoardModel m) {
+    private List<TargetCluster> clusterTargets(BoardModel m) {
         List<TargetCluster> clusters = new ArrayList<>();
         
         // Find all gems and shields on the board
         List<int[]> targets = new ArrayList<>();
-        for (int r = 0; r < m.rows; r++) {
-            for (int c = 0; c < m.cols; c++) {
-                if (m.grid[r][c].gem || m.grid[r][c].shield) {
-                    targets.add(new int[]{r, c});
-                }
-            }
+        for (int i = m.nextItem(0); i >= 0; i = m.nextItem(i + 1)) {
+            targets.add(new int[]{i / m.cols, i % m.cols});
         }
         
         // Simple clustering by quadrant relative to CPU position
@@ -288,24 +428,24 @@ public class Greedy {
         return clusters;
     }
     
-    private static Direction evaluateCluster(BoardModel m, TargetCluster cluster) {
+    private Direction evaluateCluster(BoardModel m, TargetCluster cluster) {
         // Find the best direction to approach this cluster
         double bestScore = -Double.MAX_VALUE;
         Direction bestDir = null;
         
         for (Direction d : Direction.values()) {
-            BoardModel.SlideResult res = m.slide(m.cpuRow, m.cpuCol, d, false);
+            long res = m.slidePacked(m.cpuRow, m.cpuCol, d, false);
             
             // Safety check
-            if (res.hitMine && m.cpuShields == 0) {
+            if (BoardModel.slideHitMine(res) && m.cpuShields == 0) {
                 continue;
             }
             
             // Calculate how good this direction is for reaching the cluster
-            double clusterScore = cluster.evaluateDirection(res.r, res.c, d);
+            double clusterScore = cluster.evaluateDirection(BoardModel.slideRow(res), BoardModel.slideCol(res), d);
             
             // Combine with immediate rewards
-            double score = clusterScore + (res.gems * 100.0) + (res.shields * 10.0);
+            double score = clusterScore + (BoardModel.slideGems(res) * 100.0) + (BoardModel.slideShields(res) * 10.0);
             
             if (score > bestScore) {
                 bestScore = score;
@@ -316,65 +456,87 @@ public class Greedy {
         return bestDir;
     }
     
-    private static double evaluateMoveScore(BoardModel m, BoardModel.SlideResult res, Direction dir, int depth) {
+    // Scores the CPU playing dir, whose slide outcome is res, on the board. The move is
+    // really played with doMove/undoMove, so items it collects are gone for the rest
+    // of the lookahead instead of being counted again at every ply.
+    private double evaluateMoveScore(HardWorker w, long res, Direction dir, int depth, SearchBudget budget) {
         if (depth == 0) return 0;
+        checkCancelled();
+        if (budget.tick()) return 0;
         
-        int currentShields = m.cpuShields + res.shields;
-        if (res.hitMine) {
-            currentShields--;
-        }
+        double score = (BoardModel.slideGems(res) * 100.0) + (BoardModel.slideShields(res) * 10.0);
+        if (depth == 1) return score;
         
-        double score = (res.gems * 100.0) + (res.shields * 10.0);
+        w.board.doMove(false, dir);
+        double futureScore = getLookaheadScore(w, depth - 1, budget);
+        w.board.undoMove();
+        if (budget.isExhausted()) return 0;
         
-        // Recursive lookahead with reduced branching factor
-        Set<Integer> visited = new HashSet<>();
-        visited.add(res.r * 1000 + res.c);
+        return score + futureScore * 0.9;
+    }
+    
+    // Best score the CPU can add from its current square in depth more moves,
+    // exploring only promising directions (divide the search space)
+    private double getLookaheadScore(HardWorker w, int depth, SearchBudget budget) {
+        BoardModel m = w.board;
+        // Salted so entries never mix with getRecursiveScore's, which tries every direction
+        long key = m.hash() ^ m.layoutHash() ^ LOOKAHEAD_KEY;
+        double cached = w.table.probe(key, depth);
+        if (!Double.isNaN(cached)) return cached;
         
-        // Only explore promising directions (divide the search space)
-        List<Direction> promisingDirs = getPromisingDirectionsFromPosition(m, res.r, res.c);
+        int r = m.cpuRow, c = m.cpuCol;
         
         double futureScore = 0;
-        for (Direction nextDir : promisingDirs) {
-            BoardModel.SlideResult nextRes = m.slide(res.r, res.c, nextDir, false);
-            
-            int cellKey = nextRes.r * 1000 + nextRes.c;
-            if (visited.contains(cellKey) && nextRes.gems == 0) continue;
-            
-            double nextScore = evaluateMoveScore(m, nextRes, nextDir, depth - 1);
-            futureScore = Math.max(futureScore, nextScore);
+        Direction bestDir = null;
+        for (int dirs = getPromisingDirectionsFromPosition(m, r, c); dirs != 0; dirs &= dirs - 1) {
+            Direction nextDir = DIRECTIONS[Integer.numberOfTrailingZeros(dirs)];
+            long nextRes = m.slidePacked(r, c, nextDir, false);
+            
+            // Moves that go nowhere, or onto a mine without a shield, end the line
+            if (BoardModel.slideRow(nextRes) == r && BoardModel.slideCol(nextRes) == c && BoardModel.slideGems(nextRes) == 0) continue;
+            if (BoardModel.slideHitMine(nextRes) && m.cpuShields + BoardModel.slideShields(nextRes) == 0) continue;
+            
+            double nextScore = evaluateMoveScore(w, nextRes, nextDir, depth, budget);
+            if (budget.isExhausted()) return 0;
+            if (nextScore > futureScore) {
+                futureScore = nextScore;
+                bestDir = nextDir;
+            }
         }
         
-        return score + futureScore * 0.9;
+        w.table.store(key, depth, futureScore, bestDir);
+        return futureScore;
     }
     
-    private static List<Direction> getPromisingDirectionsFromPosition(BoardModel m, int r, int c) {
-        List<Direction> promising = new ArrayList<>();
+    // Promising directions as a mask of Direction ordinals
+    private int getPromisingDirectionsFromPosition(BoardModel m, int r, int c) {
+        int promising = 0;
         
         // Simple heuristic: directions that lead to visible items
-        for (Direction d : Direction.values()) {
+        for (Direction d : DIRECTIONS) {
             int nr = r + d.dx;
             int nc = c + d.dy;
             
-            if (m.inBounds(nr, nc) && !m.grid[nr][nc].wall) {
+            if (m.inBounds(nr, nc) && !m.isWall(nr, nc)) {
                 // Check a few steps ahead
                 for (int i = 0; i < 2; i++) {
-                    if (m.grid[nr][nc].gem || m.grid[nr][nc].shield) {
-                        promising.add(d);
+                    if (m.isGem(nr, nc) || m.isShield(nr, nc)) {
+                        promising |= 1 << d.ordinal();
                         break;
                     }
                     nr += d.dx;
                     nc += d.dy;
-                    if (!m.inBounds(nr, nc) || m.grid[nr][nc].wall) break;
+                    if (!m.inBounds(nr, nc) || m.isWall(nr, nc)) break;
                 }
             }
         }
         
         // If no promising directions found, return all safe directions
-        if (promising.isEmpty()) {
-            for (Direction d : Direction.values()) {
-                BoardModel.SlideResult res = m.slide(r, c, d, false);
-                if (!res.hitMine && (res.r != r || res.c != c)) {
-                    promising.add(d);
+        if (promising == 0) {
+            for (Direction d : DIRECTIONS) {
+                int entry = m.jump(r, c, d);
+                if (!BoardModel.jumpHitsMine(entry) && BoardModel.jumpIndex(entry) != m.index(r, c)) {
+                    promising |= 1 << d.ordinal();
                 }
             }
         }
@@ -384,91 +546,86 @@ public class Greedy {
 
     // ORIGINAL IMPLEMENTATIONS (kept as fallbacks)
     
-    private static Direction playEasyOriginal(BoardModel m) {
+    private Direction playEasyOriginal(BoardModel m) {
         List<Direction> safeMoves = new ArrayList<>();
         List<Direction> itemMoves = new ArrayList<>();
 
         for (Direction d : Direction.values()) {
-            BoardModel.SlideResult res = m.slide(m.cpuRow, m.cpuCol, d, false);
+            long res = m.slidePacked(m.cpuRow, m.cpuCol, d, false);
 
-            boolean dead = res.hitMine && (m.cpuShields == 0);
-            boolean moved = (res.r != m.cpuRow || res.c != m.cpuCol);
+            boolean dead = BoardModel.slideHitMine(res) && (m.cpuShields == 0);
+            boolean moved = (BoardModel.slideRow(res) != m.cpuRow || BoardModel.slideCol(res) != m.cpuCol);
 
             if (!dead && moved) {
                 safeMoves.add(d);
-                if (res.gems > 0 || res.shields > 0) {
+                if (BoardModel.slideGems(res) > 0 || BoardModel.slideShields(res) > 0) {
                     itemMoves.add(d);
                 }
             }
         }
 
         if (!itemMoves.isEmpty()) {
-            return itemMoves.get(new Random().nextInt(itemMoves.size()));
+            return itemMoves.get(random.nextInt(itemMoves.size()));
         }
 
         if (!safeMoves.isEmpty()) {
-            return safeMoves.get(new Random().nextInt(safeMoves.size()));
+            return safeMoves.get(random.nextInt(safeMoves.size()));
         }
 
         return null;
     }
 
-    private static Direction playMediumOriginal(BoardModel m) {
-        Queue<Node> queue = new LinkedList<>();
-        Set<String> visited = new HashSet<>();
-
-        Node start = new Node(m.cpuRow, m.cpuCol, m.cpuShields, null);
-        queue.add(start);
-        visited.add(start.key());
+    private Direction playMediumOriginal(BoardModel m) {
+        StateQueue queue = bfsQueue;
+        IntSet visited = bfsVisited;
+        queue.clear();
+        visited.clear();
 
-        while (!queue.isEmpty()) {
-            Node curr = queue.poll();
-
-            for (Direction d : Direction.values()) {
-                BoardModel.SlideResult res = m.slide(curr.r, curr.c, d, false);
+        int start = m.cpuShields * (m.rows * m.cols) + m.index(m.cpuRow, m.cpuCol);
+        queue.add(start, -1);
+        visited.add(start);
 
-                int nextShields = curr.shields + res.shields;
-                boolean isSafe = true;
+        Direction found = searchGem(m, queue, visited);
+        if (found != null) return found;
 
-                if (res.hitMine) {
-                    if (nextShields > 0) {
-                        nextShields--;
-                    } else {
-                        isSafe = false;
-                    }
-                }
-
-                if (!isSafe) continue;
-                if (res.r == curr.r && res.c == curr.c && res.gems == 0) continue;
-
-                Direction firstMove = (curr.firstDir == null) ? d : curr.firstDir;
+        return playEasyOriginal(m);
+    }
 
-                if (res.gems > 0) {
-                    return firstMove;
-                }
+    private Direction playHardOriginal(BoardModel m) {
+        SearchBudget budget = newHardBudget();
+        Direction bestDir = null;
+        int reached = 0;
 
-                Node nextNode = new Node(res.r, res.c, nextShields, firstMove);
-                if (!visited.contains(nextNode.key())) {
-                    visited.add(nextNode.key());
-                    queue.add(nextNode);
-                }
-            }
+        for (HardWorker w : hardWorkers) w.board = m.copy();
+        for (int depth = 1; depth <= HARD_MAX_DEPTH; depth++) {
+            SearchBudget limit = (depth == 1) ? SearchBudget.unlimited() : budget;
+            Direction iterationBest = searchHardRoot(m, depth, limit);
+            if (limit.isExhausted()) break;
+            bestDir = iterationBest;
+            reached = depth;
         }
 
+        releaseBoards();
+        lastHardDepth = reached;
+        if (bestDir != null) return bestDir;
         return playEasyOriginal(m);
     }
 
-    private static Direction playHardOriginal(BoardModel m) {
-        double bestScore = -Double.MAX_VALUE;
-        Direction bestDir = null;
+    private Direction searchHardRoot(BoardModel m, int depth, SearchBudget budget) {
+        Direction[] dirs = DIRECTIONS;
+        long[] results = new long[dirs.length];
+        for (int k = 0; k < dirs.length; k++) {
+            results[k] = m.slidePacked(m.cpuRow, m.cpuCol, dirs[k], false);
+        }
 
-        for (Direction d : Direction.values()) {
-            BoardModel.SlideResult res = m.slide(m.cpuRow, m.cpuCol, d, false);
+        double[] scores = scoreInParallel(dirs.length, k -> {
+            Direction d = dirs[k];
+            long res = results[k];
             
-            int currentShields = m.cpuShields + res.shields;
+            int currentShields = m.cpuShields + BoardModel.slideShields(res);
             boolean dead = false;
 
-            if (res.hitMine) {
+            if (BoardModel.slideHitMine(res)) {
                 if (currentShields > 0) {
                     currentShields--;
                 } else {
@@ -476,68 +633,214 @@ public class Greedy {
                 }
             }
 
-            if (dead) continue;
+            if (dead) return Double.NEGATIVE_INFINITY;
             
-            if (res.r == m.cpuRow && res.c == m.cpuCol && res.gems == 0) continue;
+            if (BoardModel.slideRow(res) == m.cpuRow && BoardModel.slideCol(res) == m.cpuCol && BoardModel.slideGems(res) == 0) {
+                return Double.NEGATIVE_INFINITY;
+            }
 
-            double score = (res.gems * 100.0) + (res.shields * 10.0);
-            
-            Set<Integer> visitedCells = new HashSet<>();
-            visitedCells.add(res.r * 1000 + res.c);
+            double score = (BoardModel.slideGems(res) * 100.0) + (BoardModel.slideShields(res) * 10.0);
             
-            score += getRecursiveScore(m, res.r, res.c, currentShields, HARD_DEPTH - 1, visitedCells);
+            // Play the move on this root's own board so collected gems are not scored
+            // again deeper down
+            HardWorker worker = hardWorkers[k];
+            worker.line[0] = m.index(BoardModel.slideRow(res), BoardModel.slideCol(res));
+            worker.board.doMove(false, d);
+            score += getRecursiveScore(worker, depth - 1, 0, budget);
+            worker.board.undoMove();
+            return score;
+        }, budget);
+        if (budget.isExhausted()) return null;
 
-            if (score > bestScore) {
-                bestScore = score;
-                bestDir = d;
+        double bestScore = -Double.MAX_VALUE;
+        Direction bestDir = null;
+        for (int k = 0; k < dirs.length; k++) {
+            if (scores[k] > bestScore) {
+                bestScore = scores[k];
+                bestDir = dirs[k];
             }
         }
+        return bestDir;
+    }
 
-        if (bestDir != null) return bestDir;
-        return playEasyOriginal(m);
+    // Runs scorer(0..n-1) as independent tasks on the Hard mode pool; nothing below the
+    // root is split further. Waiting here is interruptible: a cancelled turn stops the
+    // shared budget so the workers unwind. An untimed budget runs the tasks one after
+    // another on this thread instead, so which task spends the last node, and with it
+    // the move, does not depend on thread timing.
+    private double[] scoreInParallel(int n, IntToDoubleFunction scorer, SearchBudget budget) {
+        double[] scores = new double[n];
+        if (!budget.isTimed()) {
+            for (int k = 0; k < n; k++) scores[k] = scorer.applyAsDouble(k);
+            return scores;
+        }
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            int k = i;
+            tasks.add(ForkJoinTask.adapt(() -> { scores[k] = scorer.applyAsDouble(k); }));
+        }
+        ForkJoinTask<?> all = HARD_POOL.submit(() -> ForkJoinTask.invokeAll(tasks));
+        try {
+            all.get();
+        } catch (InterruptedException e) {
+            budget.stop();
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        }
+        return scores;
     }
 
-    private static double getRecursiveScore(BoardModel m, int startR, int startC, int startShields, int depth, Set<Integer> visited) {
+    // w.line[0..ply] holds the cells this line has visited so far
+    private double getRecursiveScore(HardWorker w, int depth, int ply, SearchBudget budget) {
         if (depth == 0) return 0;
+        checkCancelled();
+        if (budget.tick()) return 0;
+
+        // The visited cells only prune gemless revisits, so a subtree's value is
+        // treated as a function of the position and remaining depth alone
+        BoardModel m = w.board;
+        long key = m.hash() ^ m.layoutHash();
+        double cached = w.table.probe(key, depth);
+        if (!Double.isNaN(cached)) return cached;
 
         double maxScore = 0;
+        Direction bestDir = null;
 
-        for (Direction d : Direction.values()) {
-            BoardModel.SlideResult res = m.slide(startR, startC, d, false);
+        for (Direction d : DIRECTIONS) {
+            long res = m.slidePacked(m.cpuRow, m.cpuCol, d, false);
             
-            int nextShields = startShields + res.shields;
-            boolean dead = false;
-
-            if (res.hitMine) {
-                if (nextShields > 0) nextShields--;
-                else dead = true;
-            }
-
+            boolean dead = BoardModel.slideHitMine(res) && m.cpuShields + BoardModel.slideShields(res) == 0;
             if (dead) continue;
             
-            int cellKey = res.r * 1000 + res.c;
-            if (visited.contains(cellKey) && res.gems == 0) continue;
+            int cell = m.index(BoardModel.slideRow(res), BoardModel.slideCol(res));
+            if (w.visited(cell, ply) && BoardModel.slideGems(res) == 0) continue;
 
-            double currentMoveScore = (res.gems * 100.0) + (res.shields * 10.0);
+            double currentMoveScore = (BoardModel.slideGems(res) * 100.0) + (BoardModel.slideShields(res) * 10.0);
             
-            Set<Integer> nextVisited = new HashSet<>(visited);
-            nextVisited.add(cellKey);
+            w.line[ply + 1] = cell;
+            m.doMove(false, d);
+            double futureScore = getRecursiveScore(w, depth - 1, ply + 1, budget);
+            m.undoMove();
+            if (budget.isExhausted()) return 0;
 
-            double futureScore = getRecursiveScore(m, res.r, res.c, nextShields, depth - 1, nextVisited);
-
-            maxScore = Math.max(maxScore, currentMoveScore + futureScore * 0.9);
+            double score = currentMoveScore + futureScore * 0.9;
+            if (score > maxScore) {
+                maxScore = score;
+                bestDir = d;
+            }
         }
+        w.table.store(key, depth, maxScore, bestDir);
         return maxScore;
     }
 
-    // Helper Node for BFS
-    private static class Node {
-        int r, c, shields;
-        Direction firstDir;
-        Node(int r, int c, int s, Direction d) { 
-            this.r = r; this.c = c; this.shields = s; this.firstDir = d; 
+    // Drops the turn's boards so a finished game is not kept reachable
+    private void releaseBoards() {
+        for (HardWorker w : hardWorkers) w.board = null;
+    }
+
+    // Hard mode scratch for one root move, reused by every iteration and turn: its
+    // transposition table, the board its lookahead makes and unmakes moves on during
+    // a turn, and the cells of the line being searched, one per ply
+    private static class HardWorker {
+        final TranspositionTable table = new TranspositionTable((1 << 16) / DIRECTIONS.length);
+        final int[] line = new int[HARD_MAX_DEPTH + 1];
+        BoardModel board;
+
+        boolean visited(int cell, int ply) {
+            for (int i = 0; i <= ply; i++) {
+                if (line[i] == cell) return true;
+            }
+            return false;
+        }
+    }
+
+    // Background searches are abandoned by interrupting their thread
+    private static void checkCancelled() {
+        if (Thread.currentThread().isInterrupted()) throw new CancellationException();
+    }
+
+    // Ring buffer of BFS states with the first move that reached each one
+    private static class StateQueue {
+        int[] states = new int[256];
+        int[] firstDirs = new int[256];
+        int head, size;
+
+        void clear() { head = 0; size = 0; }
+        boolean isEmpty() { return size == 0; }
+        int peekState() { return states[head]; }
+        int peekFirstDir() { return firstDirs[head]; }
+
+        void poll() {
+            head = (head + 1) & (states.length - 1);
+            size--;
+        }
+
+        void add(int state, int firstDir) {
+            if (size == states.length) grow();
+            int tail = (head + size) & (states.length - 1);
+            states[tail] = state;
+            firstDirs[tail] = firstDir;
+            size++;
+        }
+
+        private void grow() {
+            int[] s = new int[states.length * 2];
+            int[] f = new int[states.length * 2];
+            for (int i = 0; i < size; i++) {
+                int j = (head + i) & (states.length - 1);
+                s[i] = states[j];
+                f[i] = firstDirs[j];
+            }
+            states = s;
+            firstDirs = f;
+            head = 0;
+        }
+    }
+
+    // Open-addressing set of non-negative ints, linear probing, kept at most half full
+    private static class IntSet {
+        int[] table = newTable(1024);
+        int size;
+
+        void clear() {
+            Arrays.fill(table, -1);
+            size = 0;
+        }
+
+        // Returns false if the value was already present
+        boolean add(int v) {
+            if ((size + 1) * 2 > table.length) rehash();
+            int mask = table.length - 1;
+            int i = mix(v) & mask;
+            while (table[i] != -1) {
+                if (table[i] == v) return false;
+                i = (i + 1) & mask;
+            }
+            table[i] = v;
+            size++;
+            return true;
+        }
+
+        private void rehash() {
+            int[] old = table;
+            table = newTable(old.length * 2);
+            size = 0;
+            for (int v : old) if (v != -1) add(v);
+        }
+
+        private static int mix(int v) {
+            int h = v * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+
+        private static int[] newTable(int n) {
+            int[] t = new int[n];
+            Arrays.fill(t, -1);
+            return t;
         }
-        String key() { return r + "," + c + "," + shields; }
     }
     
     // Helper class for target clustering
@@ -599,5 +902,4 @@ public class Greedy {
             return new int[]{totalR / targets.size(), totalC / targets.size()};
         }
     }
-}
-[file content end]
\ No newline at end of file
+}
\ No newline at end of file
@@ -1,412 +1,520 @@
 import java.awt.*;
-import java.util.ArrayList;
-import java.util.Iterator;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
 import javax.swing.*;
 
+/**
+ * Board view with a camera. Cells are laid out in board space at 45 px each and
+ * shown at the current zoom and pan: the mouse wheel zooms about the pointer and
+ * dragging pans. Only the cells inside the clip are drawn. Zoomed in, cells get
+ * their full glyphs; zoomed out below DETAIL_PIXELS per cell, the board is drawn
+ * as flat tiles from a one-pixel-per-cell map. When the board does not fit in the
+ * panel, a minimap of that map shows where the view is, and clicking it moves there.
+ */
 public class GridPanel extends JPanel {
 
-    private final BoardModel model;
+    // Largest panel a board asks for; bigger boards are viewed through the camera
+    private static final int MAX_VIEW = 720;
+    // Below this many screen pixels per cell, cells are drawn as flat tiles
+    private static final double DETAIL_PIXELS = 16;
+    private static final double MAX_ZOOM = 2;
+    private static final double WHEEL_STEP = 1.25;
+    private static final int MINIMAP_SIZE = 150, MINIMAP_MARGIN = 10;
+
+    // Flat tile colours, in cellMap and the minimap
+    private static final int FLOOR_RGB = Color.LIGHT_GRAY.getRGB();
+    private static final int WALL_RGB = Color.DARK_GRAY.getRGB();
+    private static final int STOP_RGB = new Color(150, 150, 150).getRGB();
+    private static final int MINE_RGB = new Color(20, 20, 25).getRGB();
+    private static final int GEM_RGB = Color.CYAN.getRGB();
+    private static final int SHIELD_RGB = Color.BLUE.getRGB();
+
+    private BoardModel model;
     private final int size = 45;
-    private java.util.List<ShieldAnimation> shieldAnimations = new ArrayList<>();
+    // At most 256 bursts play at once, fewer than the cells of a 16x16 board; a burst
+    // started while all of them are playing is dropped
+    private final ParticleSystem particles = new ParticleSystem(256);
+    private final Rectangle effects = new Rectangle();
+    private final Rectangle dirty = new Rectangle();
+    private final Rectangle lastDirty = new Rectangle();
+    private final Cell cell = new Cell();
+    private BufferedImage background;
+    private GraphicsConfiguration backgroundConfig;
+    private SpriteAtlas atlas;
+    private GraphicsConfiguration atlasConfig;
+
+    // Camera: screen = (board - view) * zoom, with board space at size px per cell
+    private double zoom = 1;
+    private double viewX, viewY;
+    private final Point dragFrom = new Point();
+    private boolean draggingMinimap;
+
+    // One pixel per cell, kept current as items are collected; scaled up for flat
+    // tiles and down for the minimap
+    private BufferedImage cellMap;
+    private BufferedImage minimap;
+    private boolean minimapStale;
+    private final Rectangle minimapArea = new Rectangle();
+    private final Rectangle visible = new Rectangle();
+    private final Rectangle area = new Rectangle();
+    private final AffineTransform device = new AffineTransform();
+
+    // Registered with the shared FrameScheduler only while an animation is playing,
+    // so an idle or removed panel never wakes the EDT
+    private final FrameScheduler.Client animations = new FrameScheduler.Client() {
+        @Override
+        public boolean step() {
+            return particles.step();
+        }
+
+        // Repaints where the effects are now and where they were last frame
+        @Override
+        public void render() {
+            boolean live = particles.bounds(effects);
+            if (live) toScreen(effects);
+            if (live) dirty.setBounds(effects);
+            else dirty.setBounds(lastDirty);
+            if (live && !lastDirty.isEmpty()) dirty.add(lastDirty);
+            if (!dirty.isEmpty()) repaint(dirty.x, dirty.y, dirty.width, dirty.height);
+            if (live) lastDirty.setBounds(effects);
+            else lastDirty.setSize(0, 0);
+        }
+    };
+
+    // Repaints just the cells a move touched instead of the whole board
+    private final BoardModel.BoardChangeListener changes = new BoardModel.BoardChangeListener() {
+        @Override
+        public void onCellCleared(int row, int col) {
+            if (cellMap != null) cellMap.setRGB(col, row, flatColour(row, col));
+            minimapStale = true;
+            repaintCell(row, col);
+            repaintMinimap();
+        }
+
+        @Override
+        public void onPlayerMoved(boolean human, int fromRow, int fromCol, int toRow, int toCol) {
+            repaintCell(fromRow, fromCol);
+            repaintCell(toRow, toCol);
+            // Flat tiles draw the players as markers at least 3 px in radius, which
+            // reach past a cell of under 6 px
+            if (!isDetailed()) {
+                repaintMarker(fromRow, fromCol);
+                repaintMarker(toRow, toCol);
+            }
+            repaintMinimap();
+        }
+
+        @Override
+        public void onShieldsChanged(boolean human, int shields) {
+            // The shield count is drawn on the player's cell
+            if (human) repaintCell(model.humanRow, model.humanCol);
+            else repaintCell(model.cpuRow, model.cpuCol);
+        }
+    };
 
     public GridPanel(BoardModel m) {
         model = m;
-        setPreferredSize(new Dimension(m.cols * size, m.rows * size));
+        m.setBoardChangeListener(changes);
+        setPreferredSize(viewSize(m));
         setBackground(new Color(240, 240, 245));
-        
-        javax.swing.Timer animTimer = new javax.swing.Timer(30, e -> {
-            boolean needsRepaint = false;
-            Iterator<ShieldAnimation> it = shieldAnimations.iterator();
-            while (it.hasNext()) {
-                ShieldAnimation anim = it.next();
-                anim.update();
-                if (anim.isFinished()) {
-                    it.remove();
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                setCamera(zoom, viewX, viewY);
+            }
+        });
+
+        MouseAdapter camera = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                draggingMinimap = showMinimap() && minimapArea.contains(e.getPoint());
+                if (draggingMinimap) lookAtMinimap(e.getX(), e.getY());
+                dragFrom.setLocation(e.getPoint());
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (draggingMinimap) {
+                    lookAtMinimap(e.getX(), e.getY());
+                } else {
+                    setCamera(zoom, viewX - (e.getX() - dragFrom.x) / zoom, viewY - (e.getY() - dragFrom.y) / zoom);
                 }
-                needsRepaint = true;
+                dragFrom.setLocation(e.getPoint());
             }
-            if (needsRepaint) {
-                repaint();
+
+            // Zooms about the pointer, keeping the board point under it in place
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                double z = clampZoom(zoom * Math.pow(WHEEL_STEP, -e.getPreciseWheelRotation()));
+                double bx = e.getX() / zoom + viewX;
+                double by = e.getY() / zoom + viewY;
+                setCamera(z, bx - e.getX() / z, by - e.getY() / z);
             }
-        });
-        animTimer.start();
+        };
+        addMouseListener(camera);
+        addMouseMotionListener(camera);
+        addMouseWheelListener(camera);
+        lookAt(m.humanRow, m.humanCol);
+    }
+
+    @Override
+    public void removeNotify() {
+        FrameScheduler.get().cancel(animations);
+        particles.clear();
+        lastDirty.setSize(0, 0);
+        super.removeNotify();
+    }
+
+    // Shows a new game in this panel, dropping the previous game's animations
+    public void setModel(BoardModel m) {
+        model.setBoardChangeListener(null);
+        model = m;
+        m.setBoardChangeListener(changes);
+        background = null;
+        cellMap = null;
+        minimapStale = true;
+        FrameScheduler.get().cancel(animations);
+        particles.clear();
+        lastDirty.setSize(0, 0);
+        setPreferredSize(viewSize(m));
+        zoom = 1;
+        lookAt(m.humanRow, m.humanCol);
+        revalidate();
+        repaint();
+    }
+
+    private Dimension viewSize(BoardModel m) {
+        return new Dimension(Math.min(m.cols * size, MAX_VIEW), Math.min(m.rows * size, MAX_VIEW));
+    }
+
+    // Before the first layout the panel has no size yet, so the camera uses the preferred one
+    private int viewWidth() {
+        return getWidth() > 0 ? getWidth() : getPreferredSize().width;
+    }
+
+    private int viewHeight() {
+        return getHeight() > 0 ? getHeight() : getPreferredSize().height;
+    }
+
+    // Smallest zoom shows the whole board, or 1:1 if it already fits
+    private double clampZoom(double z) {
+        double fit = Math.min((double) viewWidth() / (model.cols * size), (double) viewHeight() / (model.rows * size));
+        return Math.max(Math.min(1, fit), Math.min(MAX_ZOOM, z));
+    }
+
+    // A board smaller than the view is centred, a larger one cannot be panned past its edges
+    private static double clampView(double v, double boardLength, double viewLength) {
+        if (viewLength >= boardLength) return (boardLength - viewLength) / 2;
+        return Math.max(0, Math.min(boardLength - viewLength, v));
+    }
+
+    private void setCamera(double z, double vx, double vy) {
+        zoom = clampZoom(z);
+        viewX = clampView(vx, model.cols * size, viewWidth() / zoom);
+        viewY = clampView(vy, model.rows * size, viewHeight() / zoom);
+        background = null;
+        lastDirty.setSize(0, 0);
+        repaint();
+    }
+
+    public void lookAt(int row, int col) {
+        setCamera(zoom, (col + 0.5) * size - viewWidth() / zoom / 2, (row + 0.5) * size - viewHeight() / zoom / 2);
+    }
+
+    private void lookAtMinimap(int x, int y) {
+        double scale = (double) minimapArea.width / model.cols;
+        lookAt((int) ((y - minimapArea.y) / scale), (int) ((x - minimapArea.x) / scale));
+    }
+
+    // Board-space rectangle to the screen pixels it covers
+    private void toScreen(Rectangle r) {
+        int x0 = (int) Math.floor((r.x - viewX) * zoom) - 1;
+        int y0 = (int) Math.floor((r.y - viewY) * zoom) - 1;
+        int x1 = (int) Math.ceil((r.x + r.width - viewX) * zoom) + 1;
+        int y1 = (int) Math.ceil((r.y + r.height - viewY) * zoom) + 1;
+        r.setBounds(x0, y0, x1 - x0, y1 - y0);
+    }
+
+    private void repaintCell(int row, int col) {
+        int x = (int) Math.floor((col * size - viewX) * zoom);
+        int y = (int) Math.floor((row * size - viewY) * zoom);
+        int s = (int) Math.ceil(size * zoom) + 1;
+        repaint(x, y, s, s);
+    }
+
+    private void repaintMinimap() {
+        if (showMinimap()) repaint(minimapArea.x, minimapArea.y, minimapArea.width + 1, minimapArea.height + 1);
     }
 
     public void triggerShieldBreak(int row, int col) {
-        shieldAnimations.add(new ShieldAnimation(col * size + size/2, row * size + size/2));
+        particles.burst(col * size + size/2, row * size + size/2);
+        FrameScheduler.get().schedule(animations);
+    }
+
+    // Shield-break effects still playing, out of at most effectCapacity()
+    int liveEffects() {
+        return particles.size();
+    }
+
+    int effectCapacity() {
+        return particles.capacity();
+    }
+
+    // Cells whose board-space rectangles meet the given board-space area (all cells for null)
+    private void visibleCells(Rectangle area, Rectangle out) {
+        if (area == null) {
+            out.setBounds(0, 0, model.cols, model.rows);
+            return;
+        }
+        int c0 = Math.max(0, Math.floorDiv(area.x, size));
+        int r0 = Math.max(0, Math.floorDiv(area.y, size));
+        int c1 = Math.min(model.cols - 1, Math.floorDiv(area.x + area.width - 1, size));
+        int r1 = Math.min(model.rows - 1, Math.floorDiv(area.y + area.height - 1, size));
+        out.setBounds(c0, r0, Math.max(0, c1 - c0 + 1), Math.max(0, r1 - r0 + 1));
     }
 
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
         Graphics2D g2 = (Graphics2D) g;
-        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        g2.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-
-        // Draw grid cells
-        for (int r = 0; r < model.rows; r++) {
-            for (int c = 0; c < model.cols; c++) {
-                int x = c * size;
-                int y = r * size;
-                Cell cell = model.grid[r][c];
 
-                // Background - simple original style
-                g2.setColor(cell.wall ? Color.DARK_GRAY : Color.LIGHT_GRAY);
-                g2.fillRect(x, y, size, size);
-
-                // Draw stop markers
-                if (cell.stop) {
-                    g2.setColor(Color.BLACK);
-                    g2.setStroke(new BasicStroke(2));
-                    g2.drawOval(x + 6, y + 6, size - 12, size - 12);
-                }
+        if (isDetailed()) paintDetail(g2);
+        else paintFlat(g2);
+        if (showMinimap()) paintMinimap(g2);
+    }
 
-                // Draw mines - enhanced bomb style
-                if (cell.mine) {
-                    int centerX = x + size/2;
-                    int centerY = y + size/2 + 1;
-                    int bombSize = size - 20;
-                    
-                    // Shadow
-                    g2.setColor(new Color(0, 0, 0, 60));
-                    g2.fillOval(centerX - bombSize/2 + 2, centerY - bombSize/2 + 3, bombSize, bombSize);
-                    
-                    // Bomb body - dark sphere with gradient
-                    RadialGradientPaint rgp = new RadialGradientPaint(
-                        centerX - 4, centerY - 4, bombSize/2,
-                        new float[]{0.0f, 0.7f, 1.0f},
-                        new Color[]{new Color(50, 50, 55), new Color(20, 20, 25), new Color(10, 10, 15)}
-                    );
-                    g2.setPaint(rgp);
-                    g2.fillOval(centerX - bombSize/2, centerY - bombSize/2, bombSize, bombSize);
-                    
-                    // Highlight
-                    g2.setColor(new Color(255, 255, 255, 100));
-                    g2.fillOval(centerX - bombSize/2 + 4, centerY - bombSize/2 + 3, 7, 7);
-                    
-                    // Fuse
-                    g2.setColor(new Color(40, 40, 45));
-                    g2.setStroke(new BasicStroke(2f));
-                    g2.drawLine(centerX - 1, centerY - bombSize/2, centerX - 4, centerY - bombSize/2 - 7);
-                    
-                    // Spark on fuse
-                    g2.setColor(new Color(255, 200, 50));
-                    g2.fillOval(centerX - 7, centerY - bombSize/2 - 10, 5, 5);
-                    g2.setColor(new Color(255, 255, 100));
-                    g2.fillOval(centerX - 6, centerY - bombSize/2 - 9, 3, 3);
-                }
+    private void paintDetail(Graphics2D g2) {
+        // Sprites and the static layer are drawn in device pixels, so on a HiDPI
+        // screen they are blitted 1:1 instead of being scaled up
+        AffineTransform screen = g2.getTransform();
+        double scale = screen.getScaleX();
+        double pitch = size * zoom * scale;
+        SpriteAtlas sprites = atlas(pitch);
+        Rectangle clip = g2.getClipBounds();
+        if (clip != null) {
+            area.setBounds((int) Math.floor(clip.x / zoom + viewX), (int) Math.floor(clip.y / zoom + viewY),
+                    (int) Math.ceil(clip.width / zoom) + 1, (int) Math.ceil(clip.height / zoom) + 1);
+        }
+        visibleCells(clip != null ? area : null, visible);
 
-                // Draw gems - simple original cyan style
-                if (cell.gem) {
-                    g2.setColor(Color.CYAN);
-                    int[] xPoints = {x + size/2, x + size - 10, x + size/2, x + 10};
-                    int[] yPoints = {y + 10, y + size/2, y + size - 10, y + size/2};
-                    g2.fillPolygon(xPoints, yPoints, 4);
-                }
+        device.setToTranslation(screen.getTranslateX(), screen.getTranslateY());
+        g2.setTransform(device);
 
-                // Draw shields - simple original style
-                if (cell.shield) {
-                    g2.setColor(Color.BLUE);
-                    g2.fillOval(x + 12, y + 12, size - 24, size - 24);
-                    g2.setColor(Color.WHITE);
-                    g2.setFont(new Font("SansSerif", Font.BOLD, 14));
-                    FontMetrics fm = g2.getFontMetrics();
-                    g2.drawString("S", x + size/2 - fm.stringWidth("S")/2, y + size/2 + fm.getAscent()/2 - 2);
-                }
+        // Walls, stops, mines and grid lines never change during a game
+        g2.drawImage(background(scale, sprites), 0, 0, null);
 
-                // Grid lines
-                g2.setColor(Color.GRAY);
-                g2.setStroke(new BasicStroke(1));
-                g2.drawRect(x, y, size, size);
+        // Draw the remaining items in the cells inside the clip
+        for (int r = visible.y; r < visible.y + visible.height; r++) {
+            int end = model.index(r, visible.x + visible.width - 1) + 1;
+            for (int i = model.nextItem(model.index(r, visible.x)); i >= 0 && i < end; i = model.nextItem(i + 1)) {
+                int c = i % model.cols;
+                model.cellAt(r, c, cell);
+                sprites.draw(g2, cell.gem ? SpriteAtlas.GEM : SpriteAtlas.SHIELD, deviceX(c, pitch), deviceY(r, pitch));
             }
         }
 
-        // Draw shield bubbles for human - simple original style
+        // Shield bubbles, then the players
         if (model.humanShields > 0) {
-            g2.setColor(new Color(0, 191, 255, 128));
-            g2.fillOval(model.humanCol * size + 5, model.humanRow * size + 5, size - 10, size - 10);
-            g2.setColor(Color.BLACK);
-            g2.setFont(new Font("SansSerif", Font.BOLD, 12));
-            FontMetrics fm = g2.getFontMetrics();
-            String text = String.valueOf(model.humanShields);
-            g2.drawString(text, model.humanCol * size + size/2 - fm.stringWidth(text)/2, 
-                         model.humanRow * size + size/2 + fm.getAscent()/2 - 2);
+            sprites.drawBubble(g2, model.humanShields, deviceX(model.humanCol, pitch), deviceY(model.humanRow, pitch));
         }
-
-        // Draw shield bubbles for CPU - simple original style
         if (model.cpuShields > 0) {
-            g2.setColor(new Color(0, 191, 255, 128));
-            g2.fillOval(model.cpuCol * size + 5, model.cpuRow * size + 5, size - 10, size - 10);
-            g2.setColor(Color.BLACK);
-            g2.setFont(new Font("SansSerif", Font.BOLD, 12));
-            FontMetrics fm = g2.getFontMetrics();
-            String text = String.valueOf(model.cpuShields);
-            g2.drawString(text, model.cpuCol * size + size/2 - fm.stringWidth(text)/2,
-                         model.cpuRow * size + size/2 + fm.getAscent()/2 - 2);
+            sprites.drawBubble(g2, model.cpuShields, deviceX(model.cpuCol, pitch), deviceY(model.cpuRow, pitch));
         }
+        sprites.draw(g2, SpriteAtlas.HUMAN, deviceX(model.humanCol, pitch), deviceY(model.humanRow, pitch));
+        sprites.draw(g2, SpriteAtlas.CPU, deviceX(model.cpuCol, pitch), deviceY(model.cpuRow, pitch));
 
-        // Draw players - simple original style
-        g2.setColor(Color.GREEN);
-        g2.fillOval(model.humanCol * size + 10, model.humanRow * size + 10, size - 20, size - 20);
+        // Draw shield break animations
+        g2.setTransform(screen);
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2.scale(zoom, zoom);
+        g2.translate(-viewX, -viewY);
+        particles.draw(g2);
+        g2.setTransform(screen);
+    }
 
-        g2.setColor(Color.RED);
-        g2.fillOval(model.cpuCol * size + 10, model.cpuRow * size + 10, size - 20, size - 20);
+    // Top-left corner of a cell in device pixels relative to the panel, for cells
+    // pitch device pixels apart
+    private int deviceX(int col, double pitch) {
+        return (int) Math.floor(col * pitch - viewX * pitch / size);
+    }
 
-        // Draw shield break animations
-        for (ShieldAnimation anim : shieldAnimations) {
-            anim.draw(g2);
+    private int deviceY(int row, double pitch) {
+        return (int) Math.floor(row * pitch - viewY * pitch / size);
+    }
+
+    private SpriteAtlas atlas(double pitch) {
+        int side = (int) Math.ceil(pitch);
+        if (atlas == null || atlas.side != side || atlasConfig != getGraphicsConfiguration()) {
+            atlasConfig = getGraphicsConfiguration();
+            atlas = new SpriteAtlas(side, atlasConfig);
         }
+        return atlas;
     }
 
-    private void drawPlayer(Graphics2D g2, int x, int y, Color color, String label) {
-        int centerX = x + size/2;
-        int centerY = y + size/2;
-        int playerSize = size - 16;
-        
-        // Shadow
-        g2.setColor(new Color(0, 0, 0, 70));
-        g2.fillOval(centerX - playerSize/2 + 2, centerY - playerSize/2 + 4, playerSize, playerSize);
-        
-        // Outer glow rings
-        for (int i = 3; i > 0; i--) {
-            int glowAlpha = 25 * i;
-            g2.setColor(new Color(color.getRed(), color.getGreen(), color.getBlue(), glowAlpha));
-            int glowSize = playerSize + i * 6;
-            g2.fillOval(centerX - glowSize/2, centerY - glowSize/2, glowSize, glowSize);
+    // Zoomed out: one scaled blit of the cell map, and the players as markers big
+    // enough to find at any zoom
+    private void paintFlat(Graphics2D g2) {
+        AffineTransform screen = g2.getTransform();
+        g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+        g2.scale(zoom * size, zoom * size);
+        g2.translate(-viewX / size, -viewY / size);
+        g2.drawImage(cellMap(), 0, 0, null);
+        g2.setTransform(screen);
+
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        int radius = markerRadius();
+        drawMarker(g2, model.humanRow, model.humanCol, radius, Color.GREEN);
+        drawMarker(g2, model.cpuRow, model.cpuCol, radius, Color.RED);
+    }
+
+    private boolean isDetailed() {
+        return size * zoom >= DETAIL_PIXELS;
+    }
+
+    private int markerRadius() {
+        return (int) Math.max(3, size * zoom / 2);
+    }
+
+    // Bounds of drawMarker's oval, with a pixel around it for the outline and antialiasing
+    private void repaintMarker(int row, int col) {
+        int radius = markerRadius();
+        int x = (int) (((col + 0.5) * size - viewX) * zoom);
+        int y = (int) (((row + 0.5) * size - viewY) * zoom);
+        repaint(x - radius - 1, y - radius - 1, 2 * radius + 3, 2 * radius + 3);
+    }
+
+    private void drawMarker(Graphics2D g2, int row, int col, int radius, Color color) {
+        int x = (int) (((col + 0.5) * size - viewX) * zoom);
+        int y = (int) (((row + 0.5) * size - viewY) * zoom);
+        g2.setColor(color);
+        g2.fillOval(x - radius, y - radius, radius * 2, radius * 2);
+        g2.setColor(Color.BLACK);
+        g2.drawOval(x - radius, y - radius, radius * 2, radius * 2);
+    }
+
+    private int flatColour(int r, int c) {
+        model.cellAt(r, c, cell);
+        if (cell.wall) return WALL_RGB;
+        if (cell.mine) return MINE_RGB;
+        if (cell.gem) return GEM_RGB;
+        if (cell.shield) return SHIELD_RGB;
+        return cell.stop ? STOP_RGB : FLOOR_RGB;
+    }
+
+    private BufferedImage cellMap() {
+        if (cellMap == null) {
+            cellMap = new BufferedImage(model.cols, model.rows, BufferedImage.TYPE_INT_RGB);
+            for (int r = 0; r < model.rows; r++)
+                for (int c = 0; c < model.cols; c++)
+                    cellMap.setRGB(c, r, flatColour(r, c));
         }
-        
-        // Main circle with radial gradient
-        RadialGradientPaint rgp = new RadialGradientPaint(
-            centerX - 6, centerY - 6, playerSize/2,
-            new float[]{0.0f, 0.6f, 1.0f},
-            new Color[]{color.brighter().brighter(), color, color.darker()}
-        );
-        g2.setPaint(rgp);
-        g2.fillOval(centerX - playerSize/2, centerY - playerSize/2, playerSize, playerSize);
-        
-        // Glossy highlight
-        g2.setColor(new Color(255, 255, 255, 180));
-        g2.fillOval(centerX - playerSize/2 + 5, centerY - playerSize/2 + 4, 12, 12);
-        
-        // Label with shadow
-        g2.setFont(new Font("Arial", Font.BOLD, 15));
-        FontMetrics fm = g2.getFontMetrics();
-        int textX = centerX - fm.stringWidth(label)/2;
-        int textY = centerY + fm.getAscent()/2 - 1;
-        
-        g2.setColor(new Color(0, 0, 0, 120));
-        g2.drawString(label, textX + 1, textY + 1);
-        g2.setColor(Color.WHITE);
-        g2.drawString(label, textX, textY);
-    }
-
-    private void drawShieldBubble(Graphics2D g2, int x, int y, Color color, int count) {
-        int centerX = x + size/2;
-        int centerY = y + size/2;
-        int bubbleSize = size - 8;
-        
-        // Outer glow
-        for (int i = 4; i > 0; i--) {
-            int alpha = 15 * i;
-            g2.setColor(new Color(color.getRed(), color.getGreen(), color.getBlue(), alpha));
-            int glowSize = bubbleSize + i * 5;
-            g2.fillOval(centerX - glowSize/2, centerY - glowSize/2, glowSize, glowSize);
+        return cellMap;
+    }
+
+    private boolean showMinimap() {
+        if (model.cols * size * zoom <= viewWidth() + 0.5 && model.rows * size * zoom <= viewHeight() + 0.5) return false;
+        double scale = (double) MINIMAP_SIZE / Math.max(model.cols, model.rows);
+        int w = Math.max(1, (int) (model.cols * scale));
+        int h = Math.max(1, (int) (model.rows * scale));
+        minimapArea.setBounds(getWidth() - w - MINIMAP_MARGIN, getHeight() - h - MINIMAP_MARGIN, w, h);
+        return true;
+    }
+
+    // Downsampled cell map, redrawn only after items were collected
+    private BufferedImage minimap() {
+        int w = minimapArea.width, h = minimapArea.height;
+        if (minimap == null || minimap.getWidth() != w || minimap.getHeight() != h) {
+            minimap = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+            minimapStale = true;
         }
-        
-        // Main bubble with radial gradient
-        RadialGradientPaint rgp = new RadialGradientPaint(
-            centerX - 8, centerY - 8, bubbleSize/2,
-            new float[]{0.0f, 0.7f, 1.0f},
-            new Color[]{
-                new Color(150, 220, 255, 100),
-                new Color(100, 200, 255, 80),
-                new Color(50, 150, 255, 60)
-            }
-        );
-        g2.setPaint(rgp);
-        g2.fillOval(centerX - bubbleSize/2, centerY - bubbleSize/2, bubbleSize, bubbleSize);
-        
-        // Border
-        g2.setColor(new Color(100, 200, 255, 150));
-        g2.setStroke(new BasicStroke(2.5f));
-        g2.drawOval(centerX - bubbleSize/2, centerY - bubbleSize/2, bubbleSize, bubbleSize);
-        
-        // Glossy shine
-        g2.setColor(new Color(255, 255, 255, 150));
-        g2.fillArc(centerX - bubbleSize/2 + 6, centerY - bubbleSize/2 + 6, 
-                   bubbleSize - 20, bubbleSize - 20, 45, 120);
-        
-        // Shield count
-        g2.setFont(new Font("Arial", Font.BOLD, 17));
-        FontMetrics fm = g2.getFontMetrics();
-        String text = String.valueOf(count);
-        int textX = centerX - fm.stringWidth(text)/2;
-        int textY = centerY + fm.getAscent()/2 - 1;
-        
-        g2.setColor(new Color(0, 0, 0, 150));
-        g2.drawString(text, textX + 1, textY + 1);
-        g2.setColor(new Color(255, 255, 255));
-        g2.drawString(text, textX, textY);
-    }
-
-    public int row(int y) { return y / size; }
-    public int col(int x) { return x / size; }
-
-    // Shield break animation class
-    private class ShieldAnimation {
-        private int x, y;
-        private int frame = 0;
-        private final int maxFrames = 30;
-        private java.util.List<Particle> particles = new ArrayList<>();
-        private java.util.List<ExplosionRing> rings = new ArrayList<>();
-
-        public ShieldAnimation(int x, int y) {
-            this.x = x;
-            this.y = y;
-            
-            // Create explosive particles in all directions
-            for (int i = 0; i < 20; i++) {
-                double angle = (Math.PI * 2 * i) / 20;
-                particles.add(new Particle(x, y, angle, 1));
-            }
-            
-            // Add some random particles
-            for (int i = 0; i < 15; i++) {
-                double angle = Math.random() * Math.PI * 2;
-                particles.add(new Particle(x, y, angle, 0.7 + Math.random() * 0.6));
-            }
-            
-            // Create expanding rings
-            for (int i = 0; i < 3; i++) {
-                rings.add(new ExplosionRing(x, y, i * 5));
-            }
+        if (minimapStale) {
+            Graphics2D g2 = minimap.createGraphics();
+            g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g2.drawImage(cellMap(), 0, 0, w, h, null);
+            g2.dispose();
+            minimapStale = false;
         }
+        return minimap;
+    }
 
-        public void update() {
-            frame++;
-            for (Particle p : particles) {
-                p.update();
-            }
-            for (ExplosionRing r : rings) {
-                r.update();
-            }
-        }
+    private void paintMinimap(Graphics2D g2) {
+        Rectangle m = minimapArea;
+        g2.drawImage(minimap(), m.x, m.y, null);
+        g2.setColor(Color.BLACK);
+        g2.drawRect(m.x - 1, m.y - 1, m.width + 1, m.height + 1);
 
-        public boolean isFinished() {
-            return frame >= maxFrames;
-        }
+        double scale = (double) m.width / (model.cols * size);
+        g2.setColor(Color.WHITE);
+        g2.drawRect(m.x + (int) (viewX * scale), m.y + (int) (viewY * scale),
+                (int) (viewWidth() / zoom * scale), (int) (viewHeight() / zoom * scale));
 
-        public void draw(Graphics2D g2) {
-            // Draw rings first (behind particles)
-            for (ExplosionRing r : rings) {
-                r.draw(g2);
-            }
-            
-            // Draw center flash
-            if (frame < 8) {
-                int flashAlpha = (int)(200 * (1 - frame/8.0));
-                int flashSize = 20 + frame * 4;
-                
-                g2.setColor(new Color(255, 200, 100, flashAlpha));
-                g2.fillOval(x - flashSize/2, y - flashSize/2, flashSize, flashSize);
-                
-                g2.setColor(new Color(255, 255, 200, flashAlpha/2));
-                g2.fillOval(x - flashSize/4, y - flashSize/4, flashSize/2, flashSize/2);
-            }
-            
-            // Draw particles
-            for (Particle p : particles) {
-                p.draw(g2);
-            }
+        g2.setColor(Color.GREEN);
+        g2.fillRect(m.x + (int) ((model.humanCol + 0.5) * size * scale) - 2, m.y + (int) ((model.humanRow + 0.5) * size * scale) - 2, 4, 4);
+        g2.setColor(Color.RED);
+        g2.fillRect(m.x + (int) ((model.cpuCol + 0.5) * size * scale) - 2, m.y + (int) ((model.cpuRow + 0.5) * size * scale) - 2, 4, 4);
+    }
+
+    // Pre-rendered static layer for the current view in device pixels, rebuilt when
+    // the board, the camera, the panel size or the screen configuration changes
+    private BufferedImage background(double scale, SpriteAtlas sprites) {
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+        int w = (int) Math.ceil(viewWidth() * scale);
+        int h = (int) Math.ceil(viewHeight() * scale);
+        if (background == null || backgroundConfig != gc
+                || background.getWidth() != w || background.getHeight() != h) {
+            background = (gc != null) ? gc.createCompatibleImage(w, h)
+                                      : new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+            backgroundConfig = gc;
+            Graphics2D g2 = background.createGraphics();
+            g2.setColor(getBackground());
+            g2.fillRect(0, 0, w, h);
+            area.setBounds((int) Math.floor(viewX), (int) Math.floor(viewY),
+                    (int) Math.ceil(viewWidth() / zoom) + 1, (int) Math.ceil(viewHeight() / zoom) + 1);
+            visibleCells(area, visible);
+            paintBackground(g2, visible, size * zoom * scale, sprites);
+            g2.dispose();
         }
+        return background;
+    }
 
-        private class Particle {
-            double x, y, vx, vy;
-            int size;
-            Color color;
-            double speedMult;
-
-            public Particle(int startX, int startY, double angle, double speedMult) {
-                this.x = startX;
-                this.y = startY;
-                this.speedMult = speedMult;
-                double speed = (3 + Math.random() * 3) * speedMult;
-                this.vx = Math.cos(angle) * speed;
-                this.vy = Math.sin(angle) * speed;
-                this.size = 3 + (int)(Math.random() * 5);
-                
-                // Vary colors for explosion effect
-                double colorRand = Math.random();
-                if (colorRand < 0.4) {
-                    this.color = new Color(255, 150, 50); // Orange
-                } else if (colorRand < 0.7) {
-                    this.color = new Color(255, 200, 100); // Yellow
-                } else {
-                    this.color = new Color(100, 200, 255); // Blue (shield color)
-                }
-            }
+    private void paintBackground(Graphics2D g2, Rectangle cells, double pitch, SpriteAtlas sprites) {
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g2.setStroke(new BasicStroke(1));
 
-            public void update() {
-                x += vx;
-                y += vy;
-                vx *= 0.92;
-                vy *= 0.92;
-                vy += 0.15; // Gravity
-            }
+        for (int r = cells.y; r < cells.y + cells.height; r++) {
+            int y = deviceY(r, pitch);
+            int h = deviceY(r + 1, pitch) - y;
+            for (int c = cells.x; c < cells.x + cells.width; c++) {
+                int x = deviceX(c, pitch);
+                int w = deviceX(c + 1, pitch) - x;
+                model.cellAt(r, c, cell);
 
-            public void draw(Graphics2D g2) {
-                int alpha = (int)(255 * (1 - (double)frame / maxFrames));
-                alpha = Math.max(0, Math.min(255, alpha));
-                
-                // Particle glow
-                int glowSize = size + 4;
-                g2.setColor(new Color(color.getRed(), color.getGreen(), color.getBlue(), alpha/3));
-                g2.fillOval((int)x - glowSize/2, (int)y - glowSize/2, glowSize, glowSize);
-                
-                // Particle core
-                g2.setColor(new Color(color.getRed(), color.getGreen(), color.getBlue(), alpha));
-                g2.fillOval((int)x - size/2, (int)y - size/2, size, size);
-                
-                // Bright center
-                g2.setColor(new Color(255, 255, 255, alpha/2));
-                g2.fillOval((int)x - size/4, (int)y - size/4, size/2, size/2);
-            }
-        }
-        
-        private class ExplosionRing {
-            int x, y;
-            int radius;
-            int delay;
-            
-            public ExplosionRing(int x, int y, int delay) {
-                this.x = x;
-                this.y = y;
-                this.radius = 5;
-                this.delay = delay;
-            }
-            
-            public void update() {
-                if (frame > delay) {
-                    radius += 3;
-                }
-            }
-            
-            public void draw(Graphics2D g2) {
-                if (frame <= delay) return;
-                
-                int effectiveFrame = frame - delay;
-                int alpha = (int)(180 * (1 - (double)effectiveFrame / (maxFrames - delay)));
-                alpha = Math.max(0, Math.min(180, alpha));
-                
-                if (alpha > 0) {
-                    g2.setColor(new Color(255, 200, 100, alpha/2));
-                    g2.setStroke(new BasicStroke(4));
-                    g2.drawOval(x - radius, y - radius, radius * 2, radius * 2);
-                    
-                    g2.setColor(new Color(255, 255, 200, alpha/3));
-                    g2.setStroke(new BasicStroke(2));
-                    g2.drawOval(x - radius + 2, y - radius + 2, radius * 2 - 4, radius * 2 - 4);
-                }
+                // Background - simple original style
+                g2.setColor(cell.wall ? Color.DARK_GRAY : Color.LIGHT_GRAY);
+                g2.fillRect(x, y, w, h);
+
+                if (cell.stop) sprites.draw(g2, SpriteAtlas.STOP, x, y);
+                if (cell.mine) sprites.draw(g2, SpriteAtlas.MINE, x, y);
+
+                // Grid lines
+                g2.setColor(Color.GRAY);
+                g2.drawRect(x, y, w, h);
             }
         }
     }
+
+    // Cell under a point on the panel; may lie outside the board
+    public int row(int y) { return (int) Math.floor((y / zoom + viewY) / size); }
+    public int col(int x) { return (int) Math.floor((x / zoom + viewX) / size); }
+
+    // Whether a click at this point is meant for a board cell rather than the minimap
+    public boolean isOnBoard(int x, int y) {
+        if (showMinimap() && minimapArea.contains(x, y)) return false;
+        return model.inBounds(row(y), col(x));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,113 @@
+import java.lang.ref.WeakReference;
+import java.util.*;
+import javax.swing.SwingUtilities;
+
+/**
+ * Soak check of GridPanel's animation lifecycle, runnable headless. It opens and
+ * closes panels over and over on the EDT: each one plays shield breaks, swaps in a
+ * new board with setModel the way New Game does, plays more, and is then removed.
+ * After every swap and removal the shared FrameScheduler must be stopped and the
+ * panel must have no effects left. It also checks that bursts stay within the
+ * particle system's capacity and run out on their own, and that closed panels
+ * and their boards can be collected. Exits with status 1 on the first failure.
+ *
+ * Usage: java GridPanelCheck [restarts=N] [seed=N]
+ */
+public class GridPanelCheck {
+
+    // Heap a finished run may keep over the first few hundred restarts
+    private static final long MAX_HEAP_GROWTH = 8L << 20;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = Simulator.options(args, 0);
+        int restarts = Integer.parseInt(opts.getOrDefault("restarts", "1000"));
+        long seed = Long.parseLong(opts.getOrDefault("seed", "1"));
+
+        checkBounded(seed);
+        checkRestarts(restarts, seed);
+        System.out.println("ok");
+        System.exit(0);
+    }
+
+    // Far more bursts than the panel has room for, then left to play out
+    private static void checkBounded(long seed) throws Exception {
+        GridPanel[] panel = new GridPanel[1];
+        SwingUtilities.invokeAndWait(() -> {
+            panel[0] = new GridPanel(BoardGenerator.generate(12, 12, Difficulty.HARD, seed));
+            for (int i = 0; i < 4 * panel[0].effectCapacity(); i++) panel[0].triggerShieldBreak(i % 12, i / 12 % 12);
+            expect(panel[0].liveEffects() <= panel[0].effectCapacity(), "effects grew past the particle system's capacity");
+            expect(FrameScheduler.get().isRunning(), "scheduler did not start for a shield break");
+        });
+
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (running() && System.nanoTime() < deadline) Thread.sleep(10);
+        SwingUtilities.invokeAndWait(() -> {
+            expect(!FrameScheduler.get().isRunning(), "scheduler still running after every effect finished");
+            expect(panel[0].liveEffects() == 0, panel[0].liveEffects() + " effects never finished");
+        });
+        System.out.println("bounded: effects capped and finished, scheduler stopped by itself");
+    }
+
+    private static void checkRestarts(int restarts, long seed) throws Exception {
+        List<WeakReference<Object>> closed = new ArrayList<>();
+        long baseline = 0;
+        for (int i = 0; i < restarts; i++) {
+            int game = i;
+            SwingUtilities.invokeAndWait(() -> {
+                BoardModel first = BoardGenerator.generate(12, 12, Difficulty.HARD, BoardGenerator.seedFor(seed, 2 * game));
+                GridPanel panel = new GridPanel(first);
+                first.setShieldBreakListener(panel::triggerShieldBreak);
+                panel.triggerShieldBreak(first.cpuRow, first.cpuCol);
+                expect(FrameScheduler.get().isRunning(), "scheduler did not start in game " + game);
+
+                // New Game swaps the board under the same panel
+                BoardModel second = BoardGenerator.generate(12, 12, Difficulty.HARD, BoardGenerator.seedFor(seed, 2 * game + 1));
+                first.setShieldBreakListener(null);
+                second.setShieldBreakListener(panel::triggerShieldBreak);
+                panel.setModel(second);
+                expect(!FrameScheduler.get().isRunning(), "scheduler still running after setModel in game " + game);
+                expect(panel.liveEffects() == 0, "effects survived setModel in game " + game);
+
+                // Main Menu closes the window
+                panel.triggerShieldBreak(second.humanRow, second.humanCol);
+                panel.removeNotify();
+                expect(!FrameScheduler.get().isRunning(), "scheduler still running after removeNotify in game " + game);
+                expect(panel.liveEffects() == 0, "effects survived removeNotify in game " + game);
+
+                if (game % 100 == 0) {
+                    closed.add(new WeakReference<>(panel));
+                    closed.add(new WeakReference<>(first));
+                    closed.add(new WeakReference<>(second));
+                }
+            });
+            if (i == Math.min(100, restarts - 1)) baseline = usedHeap();
+        }
+
+        long growth = usedHeap() - baseline;
+        int leaked = 0;
+        for (WeakReference<Object> ref : closed) if (ref.get() != null) leaked++;
+        System.out.printf("restarts: %d, heap growth after restart 100: %d KB, closed panels and boards still reachable: %d of %d%n",
+                restarts, growth >> 10, leaked, closed.size());
+        expect(leaked == 0, leaked + " closed panels or boards are still reachable");
+        expect(growth < MAX_HEAP_GROWTH, "heap grew by " + (growth >> 10) + " KB over " + restarts + " restarts");
+    }
+
+    private static boolean running() throws Exception {
+        boolean[] running = new boolean[1];
+        SwingUtilities.invokeAndWait(() -> running[0] = FrameScheduler.get().isRunning());
+        return running[0];
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    private static void expect(boolean condition, String failure) {
+        if (!condition) {
+            System.err.println("FAIL: " + failure);
+            System.exit(1);
+        }
+    }
+}
\ No newline at end of file
@@ -1,13 +1,24 @@
 import java.awt.*;
 import java.awt.event.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import javax.swing.*;
 import javax.swing.border.*;
 
 public class InertiaGameFrame extends JFrame {
 
-    private final BoardModel model;
+    // Boards for New Game are generated ahead of time in the background
+    private static final BoardPool BOARDS = new BoardPool(12, 12, 2);
+
+    private BoardModel model;
     private final GridPanel grid;
     private final Difficulty difficulty;
+    private final AiService ai;
+    private boolean cpuThinking = false;
+    // Failed searches in a row this CPU turn, and whether a click should retry it
+    private int cpuFailures = 0;
+    private boolean cpuRetryPending = false;
+    private javax.swing.Timer endGameTimer;
     private JPanel mainPanel;
     private JLabel statusLabel;
     private JPanel scorePanel;
@@ -16,24 +27,36 @@ public class InertiaGameFrame extends JFrame {
         super("Inertia Game - " + d);
 
         this.difficulty = d;
-        this.model = new BoardModel(12, 12, d);
+        this.model = BOARDS.take(d);
         this.grid = new GridPanel(model);
+        this.ai = new AiService(Strategies.create(d));
         
         // Connect shield animation
-        model.setShieldBreakListener((row, col) -> {
-            grid.triggerShieldBreak(row, col);
-        });
+        model.setShieldBreakListener(grid::triggerShieldBreak);
 
         setupUI();
         
         setMinimumSize(new Dimension(700, 700));
         setLocationRelativeTo(null);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                ai.cancel();
+            }
+        });
 
         grid.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
                 if (model.gameOver) return;
+                if (cpuRetryPending) {
+                    cpuRetryPending = false;
+                    startCpuTurn();
+                    return;
+                }
+                if (cpuThinking) return;
+                if (!grid.isOnBoard(e.getX(), e.getY())) return;
 
                 Direction dir = Direction.fromClick(
                         model.humanRow,
@@ -51,7 +74,6 @@ public class InertiaGameFrame extends JFrame {
                 model.move(true, dir);
                 
                 if (model.gameOver) {
-                    grid.repaint();
                     updateScorePanel();
                     endGame();
                     return;
@@ -64,7 +86,6 @@ public class InertiaGameFrame extends JFrame {
                     return; 
                 }
 
-                grid.repaint();
                 updateScorePanel();
                 model.checkEndGame();
                 if (model.gameOver) {
@@ -72,28 +93,93 @@ public class InertiaGameFrame extends JFrame {
                     return;
                 }
 
-                SwingUtilities.invokeLater(() -> {
-                    if (model.gameOver) return;
-
-                    Direction cpuDir = Greedy.choose(model, difficulty);
-                    if (cpuDir != null) {
-                        model.move(false, cpuDir);
-                    }
-                    
-                    grid.repaint();
-                    updateScorePanel();
-                    model.checkEndGame();
-
-                    if (model.gameOver) {
-                        endGame();
-                    }
-                });
+                startCpuTurn();
             }
         });
 
         setVisible(true);
     }
 
+    // The search runs on the AI thread against a snapshot; its answer is applied
+    // back on the EDT unless the request was cancelled or superseded meanwhile.
+    private void startCpuTurn() {
+        cpuThinking = true;
+        CompletableFuture<Direction> request = ai.chooseAsync(model);
+        request.whenCompleteAsync((cpuDir, error) -> {
+            if (!ai.isCurrent(request)) return;
+            if (error != null) {
+                handleCpuFailure(error);
+                return;
+            }
+            // Clears any failure message from earlier in the game
+            showDifficulty();
+            cpuFailures = 0;
+            finishCpuTurn(cpuDir);
+        }, SwingUtilities::invokeLater);
+    }
+
+    // A null direction passes the CPU's turn
+    private void finishCpuTurn(Direction cpuDir) {
+        cpuThinking = false;
+        if (model.gameOver) return;
+
+        if (cpuDir != null) {
+            model.move(false, cpuDir);
+        }
+
+        updateScorePanel();
+        model.checkEndGame();
+
+        if (model.gameOver) {
+            endGame();
+        }
+    }
+
+    // The first failure keeps the turn with the CPU until a click retries the search;
+    // if the retry fails too, the CPU passes so the game can go on
+    private void handleCpuFailure(Throwable error) {
+        Throwable cause = (error instanceof CompletionException && error.getCause() != null) ? error.getCause() : error;
+        System.err.println("CPU move failed on " + difficulty + ":");
+        cause.printStackTrace();
+
+        cpuFailures++;
+        statusLabel.setForeground(new Color(200, 50, 50));
+        if (cpuFailures == 1) {
+            statusLabel.setText("CPU move failed: " + cause + ". Click the board to retry.");
+            cpuRetryPending = true;
+        } else {
+            statusLabel.setText("CPU move failed again: " + cause + ". The CPU passes this turn.");
+            cpuFailures = 0;
+            finishCpuTurn(null);
+        }
+    }
+
+    private void showDifficulty() {
+        statusLabel.setText("Difficulty: " + difficulty);
+        statusLabel.setForeground(new Color(100, 100, 120));
+    }
+
+    // New Game: swaps a pre-generated board into this frame instead of rebuilding the window
+    private void restart() {
+        ai.cancel();
+        cpuThinking = false;
+        cpuFailures = 0;
+        cpuRetryPending = false;
+        showDifficulty();
+        if (endGameTimer != null) endGameTimer.stop();
+        model.setShieldBreakListener(null);
+        model = BOARDS.take(difficulty);
+        model.setShieldBreakListener(grid::triggerShieldBreak);
+        grid.setModel(model);
+        updateScorePanel();
+    }
+
+    @Override
+    public void dispose() {
+        ai.cancel();
+        super.dispose();
+    }
+
     private void setupUI() {
         mainPanel = new JPanel(new BorderLayout(10, 10));
         mainPanel.setBackground(new Color(240, 240, 245));
@@ -107,9 +193,9 @@ public class InertiaGameFrame extends JFrame {
         titleLabel.setForeground(new Color(50, 50, 80));
         topPanel.add(titleLabel, BorderLayout.NORTH);
 
-        statusLabel = new JLabel("Difficulty: " + difficulty, SwingConstants.CENTER);
+        statusLabel = new JLabel("", SwingConstants.CENTER);
         statusLabel.setFont(new Font("Arial", Font.PLAIN, 14));
-        statusLabel.setForeground(new Color(100, 100, 120));
+        showDifficulty();
         topPanel.add(statusLabel, BorderLayout.CENTER);
 
         scorePanel = createScorePanel();
@@ -126,10 +212,7 @@ public class InertiaGameFrame extends JFrame {
         JButton instructionsBtn = createStyledButton("Instructions", new Color(100, 150, 100));
         JButton exitBtn = createStyledButton("Exit", new Color(180, 100, 100));
 
-        restartBtn.addActionListener(e -> {
-            dispose();
-            new InertiaGameFrame(difficulty);
-        });
+        restartBtn.addActionListener(e -> restart());
 
         instructionsBtn.addActionListener(e -> showInstructions());
         exitBtn.addActionListener(e -> System.exit(0));
@@ -226,9 +309,9 @@ public class InertiaGameFrame extends JFrame {
     }
 
     private void endGame() {
-        javax.swing.Timer timer = new javax.swing.Timer(500, e -> showGameOverDialog());
-        timer.setRepeats(false);
-        timer.start();
+        endGameTimer = new javax.swing.Timer(500, e -> showGameOverDialog());
+        endGameTimer.setRepeats(false);
+        endGameTimer.start();
     }
 
     private void showGameOverDialog() {
@@ -272,8 +355,7 @@ public class InertiaGameFrame extends JFrame {
 
         newGameBtn.addActionListener(e -> {
             dialog.dispose();
-            dispose();
-            new InertiaGameFrame(difficulty);
+            restart();
         });
 
         menuBtn.addActionListener(e -> {
@@ -356,7 +438,7 @@ public class InertiaGameFrame extends JFrame {
     public static void menu() {
         JFrame menuFrame = new JFrame("Inertia - Main Menu");
         menuFrame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        menuFrame.setSize(600, 550);
+        menuFrame.setSize(600, 690);
         menuFrame.setLocationRelativeTo(null);
 
         JPanel mainPanel = new JPanel(new BorderLayout());
@@ -419,12 +501,18 @@ public class InertiaGameFrame extends JFrame {
         JButton easyBtn = createMenuButton("🟢 Easy", new Color(100, 200, 100));
         JButton mediumBtn = createMenuButton("🟠 Medium", new Color(255, 180, 60));
         JButton hardBtn = createMenuButton("🔴 Hard", new Color(230, 90, 90));
+        JButton expertBtn = createMenuButton("🟣 Expert", new Color(150, 90, 200));
+        JButton masterBtn = createMenuButton("⚫ Master", new Color(70, 70, 85));
         
         centerPanel.add(easyBtn);
         centerPanel.add(Box.createRigidArea(new Dimension(0, 12)));
         centerPanel.add(mediumBtn);
         centerPanel.add(Box.createRigidArea(new Dimension(0, 12)));
         centerPanel.add(hardBtn);
+        centerPanel.add(Box.createRigidArea(new Dimension(0, 12)));
+        centerPanel.add(expertBtn);
+        centerPanel.add(Box.createRigidArea(new Dimension(0, 12)));
+        centerPanel.add(masterBtn);
         centerPanel.add(Box.createRigidArea(new Dimension(0, 20)));
 
         // Bottom buttons
@@ -454,6 +542,16 @@ public class InertiaGameFrame extends JFrame {
             new InertiaGameFrame(Difficulty.HARD);
         });
 
+        expertBtn.addActionListener(e -> {
+            menuFrame.dispose();
+            new InertiaGameFrame(Difficulty.EXPERT);
+        });
+
+        masterBtn.addActionListener(e -> {
+            menuFrame.dispose();
+            new InertiaGameFrame(Difficulty.MASTER);
+        });
+
         instructionsBtn.addActionListener(e -> {
             InertiaGameFrame tempFrame = new InertiaGameFrame(Difficulty.MEDIUM);
             tempFrame.setVisible(false);
@@ -0,0 +1,306 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Monte Carlo Tree Search player used by Expert mode.
+ * All workers grow one shared tree. Each worker walks the tree with UCT on its own
+ * board copy using doMove/undoMove, then finishes with a lightly greedy random
+ * playout. While a walk is in progress its path carries a virtual loss, which
+ * pushes the other workers onto different branches. After the human replies, the
+ * subtree for the resulting position is kept and reused on the next turn. With a
+ * playout count and no time limit a single worker searches on the calling thread,
+ * so a seeded game is repeatable.
+ */
+public class Mcts implements MoveStrategy {
+
+    private static final double EXPLORATION = 1.4;
+    private static final int VIRTUAL_LOSS = 3;
+    private static final int MAX_PLAYOUT_PLIES = 256;
+    // Rewards are summed in fixed point so a node's total can be updated atomically
+    private static final long REWARD_SCALE = 1 << 10;
+
+    private static volatile long timeMillis = 250;
+    private static volatile long playoutLimit = 200_000;
+
+    private static final int WORKERS = Runtime.getRuntime().availableProcessors();
+    private static final ForkJoinPool POOL = new ForkJoinPool(WORKERS);
+
+    private SplittableRandom seeds = new SplittableRandom();
+    private volatile long lastPlayouts = 0;
+
+    // Tree kept from the previous turn and the layout it was grown on
+    private Node retained;
+    private long retainedLayout;
+
+    // millis <= 0 means no time limit
+    public static void setBudget(long millis, long playouts) {
+        timeMillis = millis;
+        playoutLimit = playouts;
+    }
+
+    public long lastPlayouts() {
+        return lastPlayouts;
+    }
+
+    @Override
+    public String name() {
+        return "expert";
+    }
+
+    @Override
+    public synchronized void newGame(long seed) {
+        seeds = new SplittableRandom(seed);
+        retained = null;
+    }
+
+    @Override
+    public synchronized Direction chooseMove(BoardModel m) {
+        Node root = reuseTree(m);
+        expand(root, m);
+        retained = root;
+        retainedLayout = m.layoutHash();
+        lastPlayouts = 0;
+        if (root.terminal) return null;
+        if (root.moves.length == 1) return root.moves[0];
+
+        SearchBudget budget = new SearchBudget(timeMillis, playoutLimit);
+        if (!budget.isTimed()) {
+            // A playout count alone is meant to be repeatable, and workers racing on
+            // one tree are not, so a single worker grows it on this thread
+            search(root, m.copy(), seeds.split(), budget);
+            lastPlayouts = budget.nodes();
+            return mostVisited(root);
+        }
+        List<ForkJoinTask<?>> workers = new ArrayList<>();
+        for (int k = 0; k < WORKERS; k++) {
+            BoardModel board = m.copy();
+            SplittableRandom rng = seeds.split();
+            workers.add(ForkJoinTask.adapt(() -> search(root, board, rng, budget)));
+        }
+        ForkJoinTask<?> all = POOL.submit(() -> ForkJoinTask.invokeAll(workers));
+        try {
+            all.get();
+        } catch (InterruptedException e) {
+            budget.stop();
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        }
+        lastPlayouts = budget.nodes();
+        return mostVisited(root);
+    }
+
+    // The most visited move is the most robust choice
+    private static Direction mostVisited(Node root) {
+        Node best = null;
+        for (Node child : root.children) {
+            if (child != null && (best == null || child.visits > best.visits)) best = child;
+        }
+        return best == null ? root.moves[0] : best.move;
+    }
+
+    // The previous root's grandchildren are the positions after each CPU move and
+    // human reply; the one matching this board becomes the new root
+    private Node reuseTree(BoardModel m) {
+        Node old = retained;
+        if (old != null && retainedLayout == m.layoutHash()) {
+            if (matches(old, m)) return old;
+            if (old.children != null) {
+                for (Node cpuMove : old.children) {
+                    if (cpuMove == null || cpuMove.children == null) continue;
+                    for (Node reply : cpuMove.children) {
+                        if (reply != null && matches(reply, m)) return reply;
+                    }
+                }
+            }
+        }
+        return new Node(null, false, null);
+    }
+
+    private static boolean matches(Node node, BoardModel m) {
+        return node.expanded && !node.cpuMoved && node.hash == m.hash();
+    }
+
+    private static void search(Node root, BoardModel board, SplittableRandom rng, SearchBudget budget) {
+        List<Node> path = new ArrayList<>();
+        Direction[] scratch = new Direction[8];
+        while (!budget.tick()) {
+            playout(root, board, rng, path, scratch);
+        }
+    }
+
+    // One selection/expansion/playout/backup pass; leaves the board as it found it
+    private static void playout(Node root, BoardModel board, SplittableRandom rng, List<Node> path, Direction[] scratch) {
+        path.clear();
+        int applied = 0;
+        double reward;
+        Node node = root;
+        while (true) {
+            expand(node, board);
+            if (node.terminal) {
+                reward = node.outcome;
+                break;
+            }
+            Node child = select(node);
+            boolean fresh = Node.VISITS.getAndAdd(child, VIRTUAL_LOSS) == 0;
+            path.add(child);
+            if (child.move != null) {
+                board.doMove(!child.cpuMoved, child.move);
+                applied++;
+            }
+            node = child;
+            if (fresh) {
+                expand(node, board);
+                reward = node.terminal ? node.outcome
+                        : rollout(board, !node.cpuMoved, node.move == null, rng, scratch);
+                break;
+            }
+        }
+        while (applied-- > 0) board.undoMove();
+
+        // reward is from the CPU's side; each node keeps it from the side that moved into it
+        Node.VISITS.incrementAndGet(root);
+        for (Node n : path) {
+            Node.VISITS.addAndGet(n, 1 - VIRTUAL_LOSS);
+            double r = n.cpuMoved ? reward : 1.0 - reward;
+            Node.REWARD.addAndGet(n, Math.round(r * REWARD_SCALE));
+        }
+    }
+
+    // Untried moves first, then UCT; visits still carrying a virtual loss count as losses
+    private static Node select(Node node) {
+        Node[] children = node.children;
+        for (int k = 0; k < children.length; k++) {
+            if (children[k] == null) {
+                synchronized (node) {
+                    if (children[k] == null) {
+                        children[k] = new Node(node.moves[k], !node.cpuMoved, node);
+                        return children[k];
+                    }
+                }
+            }
+        }
+
+        double logN = Math.log(Math.max(1, node.visits));
+        Node best = null;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (Node child : children) {
+            if (child == null) continue;
+            int n = child.visits;
+            if (n == 0) return child;
+            double value = child.reward / (double) REWARD_SCALE / n + EXPLORATION * Math.sqrt(logN / n);
+            if (value > bestValue) {
+                bestValue = value;
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    // Fills in a node's moves the first time a worker reaches it; the board is at the node's position
+    private static void expand(Node node, BoardModel board) {
+        if (node.expanded) return;
+        synchronized (node) {
+            if (node.expanded) return;
+            node.hash = board.hash();
+            if (node.bothPassed || board.gemCount() == 0) {
+                node.terminal = true;
+                node.outcome = scoreOutcome(board);
+            } else {
+                Direction[] moves = new Direction[8];
+                int n = safeMoves(board, !node.cpuMoved, moves);
+                // A side with no safe move passes
+                node.moves = n == 0 ? new Direction[] { null } : Arrays.copyOf(moves, n);
+                node.children = new Node[node.moves.length];
+            }
+            node.expanded = true;
+        }
+    }
+
+    private static double rollout(BoardModel board, boolean cpuToMove, boolean passed, SplittableRandom rng, Direction[] scratch) {
+        int applied = 0;
+        for (int ply = 0; ply < MAX_PLAYOUT_PLIES; ply++) {
+            Direction d = rolloutMove(board, cpuToMove, rng, scratch);
+            if (d == null) {
+                if (passed) break;
+                passed = true;
+            } else {
+                board.doMove(!cpuToMove, d);
+                applied++;
+                if (board.gemCount() == 0) break;
+                passed = false;
+            }
+            cpuToMove = !cpuToMove;
+        }
+        double outcome = scoreOutcome(board);
+        while (applied-- > 0) board.undoMove();
+        return outcome;
+    }
+
+    // Mostly takes the richest gem move when there is one, otherwise plays at random
+    private static Direction rolloutMove(BoardModel board, boolean cpu, SplittableRandom rng, Direction[] scratch) {
+        int n = safeMoves(board, cpu, scratch);
+        if (n == 0) return null;
+        if (rng.nextInt(4) != 0) {
+            int r = cpu ? board.cpuRow : board.humanRow;
+            int c = cpu ? board.cpuCol : board.humanCol;
+            Direction best = null;
+            int bestGems = 0;
+            for (int k = 0; k < n; k++) {
+                int gems = BoardModel.slideGems(board.slidePacked(r, c, scratch[k], false));
+                if (gems > bestGems || (gems == bestGems && gems > 0 && rng.nextBoolean())) {
+                    bestGems = gems;
+                    best = scratch[k];
+                }
+            }
+            if (best != null) return best;
+        }
+        return scratch[rng.nextInt(n)];
+    }
+
+    private static int safeMoves(BoardModel board, boolean cpu, Direction[] out) {
+        return cpu ? board.safeMoves(board.cpuRow, board.cpuCol, board.cpuShields, out)
+                   : board.safeMoves(board.humanRow, board.humanCol, board.humanShields, out);
+    }
+
+    // Mostly win/draw/loss, with a little credit for the gem share so a side that is
+    // already winning still prefers to keep collecting
+    private static double scoreOutcome(BoardModel board) {
+        int cpu = board.cpuScore, human = board.humanScore;
+        double result = cpu > human ? 1.0 : cpu < human ? 0.0 : 0.5;
+        double share = (cpu + 1.0) / (cpu + human + 2.0);
+        return 0.8 * result + 0.2 * share;
+    }
+
+    private static final class Node {
+        static final AtomicIntegerFieldUpdater<Node> VISITS = AtomicIntegerFieldUpdater.newUpdater(Node.class, "visits");
+        static final AtomicLongFieldUpdater<Node> REWARD = AtomicLongFieldUpdater.newUpdater(Node.class, "reward");
+
+        final Direction move;        // null for a pass
+        final boolean cpuMoved;      // side that played move
+        final boolean isPass;
+        final boolean bothPassed;    // a pass answering a pass: nobody can move
+
+        volatile int visits;
+        volatile long reward;
+
+        // Set by expand()
+        volatile boolean expanded;
+        long hash;
+        boolean terminal;
+        double outcome;
+        Direction[] moves;
+        Node[] children;
+
+        Node(Direction move, boolean cpuMoved, Node parent) {
+            this.move = move;
+            this.cpuMoved = cpuMoved;
+            this.isPass = parent != null && move == null;
+            this.bothPassed = isPass && parent.isPass;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,17 @@
+/**
+ * A CPU player. Implementations may keep scratch state and tables between
+ * calls, so an instance belongs to one game and one thread at a time; use
+ * Strategies to create them.
+ */
+public interface MoveStrategy {
+
+    String name();
+
+    // Move for the CPU side of the board, or null when it cannot move
+    Direction chooseMove(BoardModel board);
+
+    // Called before each seeded game: drops what earlier games left in the tables
+    // and reseeds any randomness, so the game plays the same whatever came before
+    default void newGame(long seed) {
+    }
+}
\ No newline at end of file
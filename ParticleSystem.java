@@ -0,0 +1,261 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.SplittableRandom;
+
+/**
+ * Shield-break effects for GridPanel: a flash, three expanding rings and a spray
+ * of particles per burst. State lives in preallocated primitive arrays, one slot
+ * per burst with its particles stored alongside it. Every colour and stroke is
+ * built once up front, and each particle is a blit of a stamp pre-rendered for its
+ * colour, size and frame, so the particles allocate nothing per frame. A finished
+ * burst is replaced by the last live one, keeping the arrays dense. Once all
+ * slots are in use, new bursts are dropped.
+ */
+public final class ParticleSystem {
+
+    // Frames a burst lasts, one per FrameScheduler step
+    private static final int FRAMES = 30;
+    private static final int RADIAL = 20, SCATTERED = 15;
+    private static final int PER_BURST = RADIAL + SCATTERED;
+    private static final int[] RING_DELAY = { 0, 5, 10 };
+    private static final int FLASH_FRAMES = 8;
+    private static final int MIN_SIZE = 3, SIZES = 5;
+
+    // Palette indexed by frame, so drawing only picks colours and stamps
+    private static final Color[] BASE = {
+        new Color(255, 150, 50),  // Orange
+        new Color(255, 200, 100), // Yellow
+        new Color(100, 200, 255)  // Blue (shield color)
+    };
+    // STAMP[colour][size - MIN_SIZE][frame]: glow, core and bright centre of one particle
+    private static final BufferedImage[][][] STAMP = new BufferedImage[BASE.length][SIZES][FRAMES + 1];
+    // RING[k]: a ring k frames after it starts, at full strength; RING_ALPHA fades
+    // ring r at frame f. A ring's size depends only on its age, so the three rings share stamps.
+    private static final BufferedImage[] RING = new BufferedImage[FRAMES];
+    private static final AlphaComposite[][] RING_ALPHA = new AlphaComposite[RING_DELAY.length][FRAMES + 1];
+    private static final BufferedImage[] FLASH = new BufferedImage[FLASH_FRAMES];
+    static {
+        for (int f = 0; f <= FRAMES; f++) {
+            int alpha = Math.max(0, Math.min(255, (int) (255 * (1 - (double) f / FRAMES))));
+            for (int c = 0; c < BASE.length; c++) {
+                for (int s = 0; s < SIZES; s++) STAMP[c][s][f] = stamp(BASE[c], MIN_SIZE + s, alpha);
+            }
+            for (int r = 0; r < RING_DELAY.length; r++) {
+                int d = RING_DELAY[r];
+                float a = (float) Math.max(0, Math.min(1, 1 - (double) (f - d) / (FRAMES - d)));
+                RING_ALPHA[r][f] = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, a);
+            }
+        }
+        for (int k = 1; k < FRAMES; k++) RING[k] = ring(5 + 3 * k);
+        for (int f = 0; f < FLASH_FRAMES; f++) FLASH[f] = flash(20 + f * 4, (int) (200 * (1 - f / (double) FLASH_FRAMES)));
+    }
+
+    private static BufferedImage stamp(Color base, int size, int alpha) {
+        int glowSize = size + 4;
+        BufferedImage img = new BufferedImage(glowSize, glowSize, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g2 = img.createGraphics();
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        int mid = glowSize / 2;
+        g2.setColor(new Color(base.getRed(), base.getGreen(), base.getBlue(), alpha / 3));
+        g2.fillOval(0, 0, glowSize, glowSize);
+        g2.setColor(new Color(base.getRed(), base.getGreen(), base.getBlue(), alpha));
+        g2.fillOval(mid - size / 2, mid - size / 2, size, size);
+        g2.setColor(new Color(255, 255, 255, alpha / 2));
+        g2.fillOval(mid - size / 4, mid - size / 4, size / 2, size / 2);
+        g2.dispose();
+        return img;
+    }
+
+    // Centred in a square of side 2 * (radius + 2) to leave room for the thick stroke
+    private static BufferedImage ring(int radius) {
+        int side = 2 * (radius + 2);
+        BufferedImage img = new BufferedImage(side, side, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g2 = img.createGraphics();
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2.setColor(new Color(255, 200, 100, 90));
+        g2.setStroke(new BasicStroke(4));
+        g2.drawOval(2, 2, radius * 2, radius * 2);
+        g2.setColor(new Color(255, 255, 200, 60));
+        g2.setStroke(new BasicStroke(2));
+        g2.drawOval(4, 4, radius * 2 - 4, radius * 2 - 4);
+        g2.dispose();
+        return img;
+    }
+
+    private static BufferedImage flash(int flashSize, int alpha) {
+        BufferedImage img = new BufferedImage(flashSize, flashSize, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g2 = img.createGraphics();
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2.setColor(new Color(255, 200, 100, alpha));
+        g2.fillOval(0, 0, flashSize, flashSize);
+        g2.setColor(new Color(255, 255, 200, alpha / 2));
+        g2.fillOval(flashSize / 2 - flashSize / 4, flashSize / 2 - flashSize / 4, flashSize / 2, flashSize / 2);
+        g2.dispose();
+        return img;
+    }
+
+    private final int capacity;
+    private int bursts = 0;
+
+    // Per burst
+    private final float[] bx, by;
+    private final int[] frame;
+
+    // Per particle; burst b owns [b * PER_BURST, (b + 1) * PER_BURST)
+    private final float[] px, py, vx, vy;
+    private final byte[] size, colour;
+
+    private final SplittableRandom random = new SplittableRandom();
+
+    // Area touched by the live bursts as of the last step, for dirty repaints
+    private int minX, minY, maxX, maxY;
+
+    public ParticleSystem(int maxBursts) {
+        capacity = maxBursts;
+        bx = new float[maxBursts];
+        by = new float[maxBursts];
+        frame = new int[maxBursts];
+        int n = maxBursts * PER_BURST;
+        px = new float[n];
+        py = new float[n];
+        vx = new float[n];
+        vy = new float[n];
+        size = new byte[n];
+        colour = new byte[n];
+        computeBounds();
+    }
+
+    public void burst(float x, float y) {
+        if (bursts == capacity) return;
+        int b = bursts++;
+        bx[b] = x;
+        by[b] = y;
+        frame[b] = 0;
+        int p = b * PER_BURST;
+        // Explosive particles in all directions, then some random ones
+        for (int i = 0; i < RADIAL; i++) spawn(p++, x, y, Math.PI * 2 * i / RADIAL, 1);
+        for (int i = 0; i < SCATTERED; i++) spawn(p++, x, y, random.nextDouble() * Math.PI * 2, 0.7 + random.nextDouble() * 0.6);
+        includeBurst(b);
+    }
+
+    private void spawn(int p, float x, float y, double angle, double speedMult) {
+        double speed = (3 + random.nextDouble() * 3) * speedMult;
+        px[p] = x;
+        py[p] = y;
+        vx[p] = (float) (Math.cos(angle) * speed);
+        vy[p] = (float) (Math.sin(angle) * speed);
+        size[p] = (byte) (MIN_SIZE + random.nextInt(SIZES));
+        double c = random.nextDouble();
+        colour[p] = (byte) (c < 0.4 ? 0 : c < 0.7 ? 1 : 2);
+    }
+
+    // Advances every burst one frame; false once none are left
+    public boolean step() {
+        int n = bursts * PER_BURST;
+        for (int p = 0; p < n; p++) {
+            px[p] += vx[p];
+            py[p] += vy[p];
+            vx[p] *= 0.92f;
+            vy[p] = vy[p] * 0.92f + 0.15f; // Gravity
+        }
+        for (int b = bursts - 1; b >= 0; b--) {
+            if (++frame[b] >= FRAMES) remove(b);
+        }
+        computeBounds();
+        return bursts > 0;
+    }
+
+    private void remove(int b) {
+        int last = --bursts;
+        if (b == last) return;
+        bx[b] = bx[last];
+        by[b] = by[last];
+        frame[b] = frame[last];
+        int to = b * PER_BURST, from = last * PER_BURST;
+        System.arraycopy(px, from, px, to, PER_BURST);
+        System.arraycopy(py, from, py, to, PER_BURST);
+        System.arraycopy(vx, from, vx, to, PER_BURST);
+        System.arraycopy(vy, from, vy, to, PER_BURST);
+        System.arraycopy(size, from, size, to, PER_BURST);
+        System.arraycopy(colour, from, colour, to, PER_BURST);
+    }
+
+    public void clear() {
+        bursts = 0;
+        computeBounds();
+    }
+
+    public boolean isEmpty() {
+        return bursts == 0;
+    }
+
+    // Bursts still playing; never more than capacity()
+    public int size() {
+        return bursts;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    private void computeBounds() {
+        minX = minY = Integer.MAX_VALUE;
+        maxX = maxY = Integer.MIN_VALUE;
+        for (int b = 0; b < bursts; b++) includeBurst(b);
+    }
+
+    private void includeBurst(int b) {
+        int f = frame[b];
+        // The first ring is the widest; a particle's glow reaches size / 2 + 2 past its centre
+        int reach = 5 + 3 * f + 3;
+        minX = Math.min(minX, (int) bx[b] - reach);
+        minY = Math.min(minY, (int) by[b] - reach);
+        maxX = Math.max(maxX, (int) bx[b] + reach);
+        maxY = Math.max(maxY, (int) by[b] + reach);
+        for (int p = b * PER_BURST, end = p + PER_BURST; p < end; p++) {
+            int r = size[p] / 2 + 3;
+            minX = Math.min(minX, (int) px[p] - r);
+            minY = Math.min(minY, (int) py[p] - r);
+            maxX = Math.max(maxX, (int) px[p] + r);
+            maxY = Math.max(maxY, (int) py[p] + r);
+        }
+    }
+
+    // Area the live bursts cover, for repainting just that; false when there are none
+    public boolean bounds(Rectangle out) {
+        if (bursts == 0) return false;
+        out.setBounds(minX, minY, maxX - minX + 1, maxY - minY + 1);
+        return true;
+    }
+
+    // Rings first, then the flashes, then the particles
+    public void draw(Graphics2D g2) {
+        Composite composite = g2.getComposite();
+        for (int b = 0; b < bursts; b++) {
+            int f = frame[b];
+            int x = (int) bx[b], y = (int) by[b];
+            for (int r = 0; r < RING_DELAY.length; r++) {
+                if (f <= RING_DELAY[r]) continue;
+                BufferedImage ring = RING[f - RING_DELAY[r]];
+                int half = ring.getWidth() / 2;
+                g2.setComposite(RING_ALPHA[r][f]);
+                g2.drawImage(ring, x - half, y - half, null);
+            }
+        }
+        g2.setComposite(composite);
+        for (int b = 0; b < bursts; b++) {
+            int f = frame[b];
+            if (f >= FLASH_FRAMES) continue;
+            int half = FLASH[f].getWidth() / 2;
+            g2.drawImage(FLASH[f], (int) bx[b] - half, (int) by[b] - half, null);
+        }
+
+        for (int b = 0; b < bursts; b++) {
+            int f = frame[b];
+            for (int p = b * PER_BURST, end = p + PER_BURST; p < end; p++) {
+                int half = (size[p] + 4) / 2;
+                g2.drawImage(STAMP[colour[p]][size[p] - MIN_SIZE][f], (int) px[p] - half, (int) py[p] - half, null);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,53 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-turn limit for anytime search: a wall-clock deadline, a node count,
+ * or both. Searches call tick() once per node and unwind as soon as it
+ * reports the budget is spent; the clock is only read every 256 nodes.
+ * A budget may be shared by the threads of a parallel search, and stop()
+ * ends it early when the search is cancelled.
+ */
+public class SearchBudget {
+
+    private final long deadline;
+    private final long maxNodes;
+    private final AtomicLong nodes = new AtomicLong();
+    private volatile boolean exhausted = false;
+
+    // millis <= 0 means no time limit
+    public SearchBudget(long millis, long maxNodes) {
+        this.deadline = millis > 0 ? System.nanoTime() + millis * 1_000_000L : Long.MAX_VALUE;
+        this.maxNodes = maxNodes;
+    }
+
+    // Counts one node; true once the budget is spent
+    public boolean tick() {
+        if (exhausted) return true;
+        long n = nodes.incrementAndGet();
+        if (n >= maxNodes || ((n & 0xFF) == 0 && System.nanoTime() >= deadline)) {
+            exhausted = true;
+        }
+        return exhausted;
+    }
+
+    public void stop() {
+        exhausted = true;
+    }
+
+    public static SearchBudget unlimited() {
+        return new SearchBudget(0, Long.MAX_VALUE);
+    }
+
+    // An untimed budget ends after a fixed amount of work, whatever the machine's load
+    public boolean isTimed() {
+        return deadline != Long.MAX_VALUE;
+    }
+
+    public boolean isExhausted() {
+        return exhausted;
+    }
+
+    public long nodes() {
+        return nodes.get();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,225 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Headless game runner for tuning, regression runs and balancing. It plays
+ * complete games between two strategies on seeded boards, using the frame's
+ * move/checkEndGame loop, and loads no AWT or Swing classes. The human side's
+ * strategy is shown the board with the sides swapped, so any engine can play
+ * either seat. A side that returns no move, or a move that changes nothing,
+ * passes its turn.
+ *
+ * think= gives the searching engines a time limit per move, so their results
+ * depend on the machine. nodes= (Hard and Master) and playouts= (Expert) give
+ * them a fixed amount of work instead and switch their time limit off; every
+ * player is reseeded from the game seed, so such a run repeats exactly.
+ *
+ * Usage: java Simulator <human> <cpu> [games=N] [threads=N] [seed=N] [size=N] [board=LEVEL]
+ *                       [think=MILLIS] [nodes=N] [playouts=N]
+ */
+public class Simulator {
+
+    public enum Winner { HUMAN, CPU, DRAW }
+
+    public static class GameResult {
+        public final long seed;
+        public final Winner winner;
+        public final int humanScore, cpuScore, turns, cpuMoves;
+        public final boolean turnLimit;
+        // Total time each side spent choosing its moves
+        public final long humanNanos, cpuNanos;
+
+        GameResult(long seed, Winner winner, BoardModel board, int turns, int cpuMoves, long humanNanos, long cpuNanos) {
+            this.seed = seed;
+            this.winner = winner;
+            this.humanScore = board.humanScore;
+            this.cpuScore = board.cpuScore;
+            this.turns = turns;
+            this.cpuMoves = cpuMoves;
+            this.turnLimit = !board.gameOver;
+            this.humanNanos = humanNanos;
+            this.cpuNanos = cpuNanos;
+        }
+    }
+
+    public static class Stats {
+        public final long games, humanWins, cpuWins, draws, turns, nanos;
+
+        Stats(long games, long humanWins, long cpuWins, long draws, long turns, long nanos) {
+            this.games = games;
+            this.humanWins = humanWins;
+            this.cpuWins = cpuWins;
+            this.draws = draws;
+            this.turns = turns;
+            this.nanos = nanos;
+        }
+
+        public double gamesPerSecond() {
+            return games / (nanos / 1e9);
+        }
+    }
+
+    private final int rows, cols;
+    private final Difficulty boardLevel;
+    private int maxTurns = 500;
+
+    public Simulator(int rows, int cols, Difficulty boardLevel) {
+        this.rows = rows;
+        this.cols = cols;
+        this.boardLevel = boardLevel;
+    }
+
+    // A turn is one human move plus one CPU move; games still running after this are scored as they stand
+    public void setMaxTurns(int maxTurns) {
+        this.maxTurns = maxTurns;
+    }
+
+    public GameResult play(MoveStrategy human, MoveStrategy cpu, long seed) {
+        return playOn(BoardGenerator.generate(rows, cols, boardLevel, seed), human, cpu, seed);
+    }
+
+    // Same game as play(), regenerating a board this thread keeps between games
+    public GameResult play(BoardModel board, MoveStrategy human, MoveStrategy cpu, long seed) {
+        board.reset(seed);
+        return playOn(board, human, cpu, seed);
+    }
+
+    public BoardModel newBoard() {
+        return BoardGenerator.generate(rows, cols, boardLevel, 0);
+    }
+
+    private GameResult playOn(BoardModel board, MoveStrategy human, MoveStrategy cpu, long seed) {
+        SplittableRandom sides = new SplittableRandom(seed);
+        human.newGame(sides.nextLong());
+        cpu.newGame(sides.nextLong());
+        int turns = 0, cpuMoves = 0;
+        long humanNanos = 0, cpuNanos = 0;
+        Winner winner = null;
+        while (turns < maxTurns) {
+            turns++;
+            long t0 = System.nanoTime();
+            board.swapSides();
+            Direction h = human.chooseMove(board);
+            board.swapSides();
+            long t1 = System.nanoTime();
+            humanNanos += t1 - t0;
+            if (h != null) board.move(true, h);
+            // move() only ends the game when the mover hits a mine unshielded
+            if (board.gameOver) {
+                winner = Winner.CPU;
+                break;
+            }
+            board.checkEndGame();
+            if (board.gameOver) break;
+
+            Direction c = cpu.chooseMove(board);
+            cpuNanos += System.nanoTime() - t1;
+            cpuMoves++;
+            if (c != null) board.move(false, c);
+            if (board.gameOver) {
+                winner = Winner.HUMAN;
+                break;
+            }
+            board.checkEndGame();
+            if (board.gameOver) break;
+        }
+        if (winner == null) {
+            winner = board.humanScore > board.cpuScore ? Winner.HUMAN
+                   : board.cpuScore > board.humanScore ? Winner.CPU : Winner.DRAW;
+        }
+        return new GameResult(seed, winner, board, turns, cpuMoves, humanNanos, cpuNanos);
+    }
+
+    // Plays games [0, games) across threads; each thread creates its own strategy
+    // instances and reuses one board, and game i is always board i of BoardGenerator
+    public Stats run(String human, String cpu, long games, int threads, long seed) {
+        AtomicLong next = new AtomicLong();
+        LongAdder humanWins = new LongAdder(), cpuWins = new LongAdder(), draws = new LongAdder(), turns = new LongAdder();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(pool.submit(() -> {
+                MoveStrategy h = Strategies.create(human);
+                MoveStrategy c = Strategies.create(cpu);
+                BoardModel board = newBoard();
+                for (long i = next.getAndIncrement(); i < games; i = next.getAndIncrement()) {
+                    GameResult r = play(board, h, c, BoardGenerator.seedFor(seed, i));
+                    turns.add(r.turns);
+                    switch (r.winner) {
+                        case HUMAN: humanWins.increment(); break;
+                        case CPU:   cpuWins.increment(); break;
+                        default:    draws.increment(); break;
+                    }
+                }
+            }));
+        }
+        try {
+            for (Future<?> w : workers) w.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return new Stats(games, humanWins.sum(), cpuWins.sum(), draws.sum(), turns.sum(), System.nanoTime() - start);
+    }
+
+    // key=value command line options, shared with Tournament and BoardModelCheck
+    static Map<String, String> options(String[] args, int from) {
+        Map<String, String> opts = new HashMap<>();
+        for (int i = from; i < args.length; i++) {
+            int eq = args[i].indexOf('=');
+            if (eq < 0) throw new IllegalArgumentException("Expected key=value: " + args[i]);
+            opts.put(args[i].substring(0, eq), args[i].substring(eq + 1));
+        }
+        return opts;
+    }
+
+    static int threads(Map<String, String> opts) {
+        return Integer.parseInt(opts.getOrDefault("threads", String.valueOf(Runtime.getRuntime().availableProcessors())));
+    }
+
+    // nodes= and playouts= take precedence over think= for the engines they cover
+    static void applyBudgets(Map<String, String> opts) {
+        long millis = Long.parseLong(opts.getOrDefault("think", "-1"));
+        if (opts.containsKey("nodes")) {
+            Greedy.setHardBudget(0, Long.parseLong(opts.get("nodes")));
+        } else if (millis >= 0) {
+            Greedy.setHardBudget(millis, Long.MAX_VALUE);
+        }
+        if (opts.containsKey("playouts")) {
+            Mcts.setBudget(0, Long.parseLong(opts.get("playouts")));
+        } else if (millis >= 0) {
+            Mcts.setBudget(millis, Long.MAX_VALUE);
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: java Simulator <human> <cpu> [games=N] [threads=N] [seed=N] [size=N] [board=LEVEL]"
+                    + " [think=MILLIS] [nodes=N] [playouts=N]");
+            System.err.println("Strategies: " + Strategies.names());
+            System.exit(2);
+        }
+        Map<String, String> opts = options(args, 2);
+        long games = Long.parseLong(opts.getOrDefault("games", "1000"));
+        int threads = threads(opts);
+        long seed = Long.parseLong(opts.getOrDefault("seed", "1"));
+        int size = Integer.parseInt(opts.getOrDefault("size", "12"));
+        Difficulty level = Difficulty.valueOf(opts.getOrDefault("board", "MEDIUM").toUpperCase());
+        applyBudgets(opts);
+
+        Stats s = new Simulator(size, size, level).run(args[0], args[1], games, threads, seed);
+        System.out.printf("%s (human) vs %s (cpu), %dx%d %s boards, seed %d%n", args[0], args[1], size, size, level, seed);
+        System.out.printf("human %d  cpu %d  draw %d  avg turns %.1f%n",
+                s.humanWins, s.cpuWins, s.draws, (double) s.turns / Math.max(1, s.games));
+        System.out.printf("%d games in %.2f s on %d threads: %.0f games/s%n",
+                s.games, s.nanos / 1e9, threads, s.gamesPerSecond());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,142 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * Cell glyphs pre-rendered side by side into one image for a given cell size in
+ * device pixels, i.e. the zoom times the screen's HiDPI scale. Each glyph is drawn
+ * once at 45 units per cell, scaled to that size, so painting a board is a run of
+ * drawImage blits out of this image with no gradients, strokes or fonts built per
+ * frame. GridPanel builds a new atlas only when the zoom or the scale changes.
+ */
+public final class SpriteAtlas {
+
+    public static final int STOP = 0, MINE = 1, GEM = 2, SHIELD = 3, HUMAN = 4, CPU = 5;
+    // BUBBLE + n is the shield bubble showing n; counts above MAX_COUNT use the blank bubble
+    public static final int BUBBLE = 6, MAX_COUNT = 9;
+    private static final int SPRITES = BUBBLE + MAX_COUNT + 1;
+
+    // Design size of a cell; the glyphs below are laid out for it
+    private static final int UNIT = 45;
+
+    public final int side;
+    private final BufferedImage sheet;
+
+    public SpriteAtlas(int side, GraphicsConfiguration gc) {
+        this.side = side;
+        sheet = (gc != null) ? gc.createCompatibleImage(side * SPRITES, side, Transparency.TRANSLUCENT)
+                             : new BufferedImage(side * SPRITES, side, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g2 = sheet.createGraphics();
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        for (int s = 0; s < SPRITES; s++) {
+            Graphics2D cell = (Graphics2D) g2.create(s * side, 0, side, side);
+            cell.scale(side / (double) UNIT, side / (double) UNIT);
+            paint(cell, s);
+            cell.dispose();
+        }
+        g2.dispose();
+    }
+
+    // Blits a sprite with its top-left corner at (x, y) in device pixels
+    public void draw(Graphics g, int sprite, int x, int y) {
+        int sx = sprite * side;
+        g.drawImage(sheet, x, y, x + side, y + side, sx, 0, sx + side, side, null);
+    }
+
+    public void drawBubble(Graphics2D g2, int count, int x, int y) {
+        if (count <= MAX_COUNT) {
+            draw(g2, BUBBLE + count, x, y);
+            return;
+        }
+        draw(g2, BUBBLE, x, y);
+        g2.setColor(Color.BLACK);
+        g2.setFont(new Font("SansSerif", Font.BOLD, Math.max(1, 12 * side / UNIT)));
+        FontMetrics fm = g2.getFontMetrics();
+        String text = String.valueOf(count);
+        g2.drawString(text, x + side/2 - fm.stringWidth(text)/2, y + side/2 + fm.getAscent()/2 - 2 * side / UNIT);
+    }
+
+    private static void paint(Graphics2D g2, int sprite) {
+        int size = UNIT;
+        switch (sprite) {
+            case STOP: {
+                g2.setColor(Color.BLACK);
+                g2.setStroke(new BasicStroke(2));
+                g2.drawOval(6, 6, size - 12, size - 12);
+                break;
+            }
+            case MINE: {
+                // Enhanced bomb style
+                int centerX = size/2;
+                int centerY = size/2 + 1;
+                int bombSize = size - 20;
+
+                // Shadow
+                g2.setColor(new Color(0, 0, 0, 60));
+                g2.fillOval(centerX - bombSize/2 + 2, centerY - bombSize/2 + 3, bombSize, bombSize);
+
+                // Bomb body - dark sphere with gradient
+                RadialGradientPaint rgp = new RadialGradientPaint(
+                    centerX - 4, centerY - 4, bombSize/2,
+                    new float[]{0.0f, 0.7f, 1.0f},
+                    new Color[]{new Color(50, 50, 55), new Color(20, 20, 25), new Color(10, 10, 15)}
+                );
+                g2.setPaint(rgp);
+                g2.fillOval(centerX - bombSize/2, centerY - bombSize/2, bombSize, bombSize);
+
+                // Highlight
+                g2.setColor(new Color(255, 255, 255, 100));
+                g2.fillOval(centerX - bombSize/2 + 4, centerY - bombSize/2 + 3, 7, 7);
+
+                // Fuse
+                g2.setColor(new Color(40, 40, 45));
+                g2.setStroke(new BasicStroke(2f));
+                g2.drawLine(centerX - 1, centerY - bombSize/2, centerX - 4, centerY - bombSize/2 - 7);
+
+                // Spark on fuse
+                g2.setColor(new Color(255, 200, 50));
+                g2.fillOval(centerX - 7, centerY - bombSize/2 - 10, 5, 5);
+                g2.setColor(new Color(255, 255, 100));
+                g2.fillOval(centerX - 6, centerY - bombSize/2 - 9, 3, 3);
+                break;
+            }
+            case GEM: {
+                // Simple original cyan style
+                g2.setColor(Color.CYAN);
+                int[] xPoints = {size/2, size - 10, size/2, 10};
+                int[] yPoints = {10, size/2, size - 10, size/2};
+                g2.fillPolygon(xPoints, yPoints, 4);
+                break;
+            }
+            case SHIELD: {
+                g2.setColor(Color.BLUE);
+                g2.fillOval(12, 12, size - 24, size - 24);
+                g2.setColor(Color.WHITE);
+                g2.setFont(new Font("SansSerif", Font.BOLD, 14));
+                FontMetrics fm = g2.getFontMetrics();
+                g2.drawString("S", size/2 - fm.stringWidth("S")/2, size/2 + fm.getAscent()/2 - 2);
+                break;
+            }
+            case HUMAN:
+            case CPU: {
+                g2.setColor(sprite == HUMAN ? Color.GREEN : Color.RED);
+                g2.fillOval(10, 10, size - 20, size - 20);
+                break;
+            }
+            default: {
+                // Shield bubble, with its count unless blank
+                int count = sprite - BUBBLE;
+                g2.setColor(new Color(0, 191, 255, 128));
+                g2.fillOval(5, 5, size - 10, size - 10);
+                if (count > 0) {
+                    g2.setColor(Color.BLACK);
+                    g2.setFont(new Font("SansSerif", Font.BOLD, 12));
+                    FontMetrics fm = g2.getFontMetrics();
+                    String text = String.valueOf(count);
+                    g2.drawString(text, size/2 - fm.stringWidth(text)/2, size/2 + fm.getAscent()/2 - 2);
+                }
+                break;
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,41 @@
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Registry of CPU players by name. Every difficulty is registered under its
+ * lower-case name; other engines can be added with register() and then picked
+ * by name in benchmarks and headless runs.
+ */
+public class Strategies {
+
+    private static final Map<String, Supplier<MoveStrategy>> FACTORIES = new LinkedHashMap<>();
+
+    static {
+        register("easy", () -> new Greedy(Difficulty.EASY));
+        register("medium", () -> new Greedy(Difficulty.MEDIUM));
+        register("hard", () -> new Greedy(Difficulty.HARD));
+        register("expert", Mcts::new);
+        register("master", AlphaBeta::new);
+    }
+
+    public static synchronized void register(String name, Supplier<MoveStrategy> factory) {
+        FACTORIES.put(name.toLowerCase(), factory);
+    }
+
+    // A fresh instance, so each game gets its own scratch state
+    public static synchronized MoveStrategy create(String name) {
+        Supplier<MoveStrategy> factory = FACTORIES.get(name.toLowerCase());
+        if (factory == null) {
+            throw new IllegalArgumentException("Unknown strategy: " + name + ", expected one of " + FACTORIES.keySet());
+        }
+        return factory.get();
+    }
+
+    public static MoveStrategy create(Difficulty level) {
+        return create(level.name());
+    }
+
+    public static synchronized Set<String> names() {
+        return new LinkedHashSet<>(FACTORIES.keySet());
+    }
+}
\ No newline at end of file
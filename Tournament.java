@@ -0,0 +1,245 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Round-robin self-play between registered strategies. Every pair plays the same
+ * seeded boards twice, once from each seat. Games run in parallel on all cores.
+ * Each worker thread reuses one board and its own strategy instances, and results
+ * are accumulated lock-free in LongAdders. The report has a win/draw/loss matrix,
+ * each pairing's score with a 95% Wilson interval, the average time per move of
+ * each engine, and Elo ratings fitted to all results.
+ *
+ * The searching engines on every thread share the Hard and Expert pools, so a
+ * time limit per move would weaken them as threads are added and tie the ratings
+ * to the machine's load. Searches are therefore bounded by nodes= and playouts=,
+ * which default to about the GUI's think time on one core. think= is accepted
+ * only with threads=1.
+ *
+ * Usage: java Tournament [engines=a,b,...] [games=N] [threads=N] [seed=N] [size=N] [board=LEVEL]
+ *                        [nodes=N] [playouts=N] [think=MILLIS]
+ * games is per pairing and is rounded up to an even number so both seats get every board.
+ */
+public class Tournament {
+
+    private static final double Z95 = 1.96;
+    private static final String DEFAULT_NODES = "500000";
+    private static final String DEFAULT_PLAYOUTS = "20000";
+
+    private final Simulator simulator;
+    private final String[] engines;
+
+    // wins[i][j]: games engine i won against engine j, from either seat
+    private final LongAdder[][] wins;
+    private final LongAdder[][] draws;
+    private final LongAdder[] moveNanos;
+    private final LongAdder[] moves;
+    private long elapsedNanos;
+
+    public Tournament(Simulator simulator, List<String> engines) {
+        this.simulator = simulator;
+        this.engines = engines.toArray(new String[0]);
+        int n = this.engines.length;
+        wins = new LongAdder[n][n];
+        draws = new LongAdder[n][n];
+        moveNanos = new LongAdder[n];
+        moves = new LongAdder[n];
+        for (int i = 0; i < n; i++) {
+            moveNanos[i] = new LongAdder();
+            moves[i] = new LongAdder();
+            for (int j = 0; j < n; j++) {
+                wins[i][j] = new LongAdder();
+                draws[i][j] = new LongAdder();
+            }
+        }
+    }
+
+    public void run(long gamesPerPair, int threads, long seed) {
+        int n = engines.length;
+        long perPair = gamesPerPair + (gamesPerPair & 1);
+        int[][] pairs = new int[n * (n - 1) / 2][];
+        int p = 0;
+        for (int i = 0; i < n; i++)
+            for (int j = i + 1; j < n; j++)
+                pairs[p++] = new int[] { i, j };
+        long total = perPair * pairs.length;
+
+        AtomicLong next = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(pool.submit(() -> {
+                BoardModel board = simulator.newBoard();
+                MoveStrategy[] mine = new MoveStrategy[n];
+                for (long u = next.getAndIncrement(); u < total; u = next.getAndIncrement()) {
+                    int[] pair = pairs[(int) (u / perPair)];
+                    long game = u % perPair;
+                    // Even games put the first engine in the human seat, odd games swap seats on the same board
+                    int human = (game & 1) == 0 ? pair[0] : pair[1];
+                    int cpu = human == pair[0] ? pair[1] : pair[0];
+                    if (mine[human] == null) mine[human] = Strategies.create(engines[human]);
+                    if (mine[cpu] == null) mine[cpu] = Strategies.create(engines[cpu]);
+
+                    Simulator.GameResult r = simulator.play(board, mine[human], mine[cpu], BoardGenerator.seedFor(seed, game >> 1));
+                    record(human, cpu, r);
+                }
+            }));
+        }
+        try {
+            for (Future<?> w : workers) w.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        elapsedNanos = System.nanoTime() - start;
+    }
+
+    private void record(int human, int cpu, Simulator.GameResult r) {
+        switch (r.winner) {
+            case HUMAN: wins[human][cpu].increment(); break;
+            case CPU:   wins[cpu][human].increment(); break;
+            default:
+                draws[human][cpu].increment();
+                draws[cpu][human].increment();
+                break;
+        }
+        moveNanos[human].add(r.humanNanos);
+        moves[human].add(r.turns);
+        moveNanos[cpu].add(r.cpuNanos);
+        moves[cpu].add(r.cpuMoves);
+    }
+
+    public long games(int i, int j) {
+        return wins[i][j].sum() + wins[j][i].sum() + draws[i][j].sum();
+    }
+
+    // Fraction of the points engine i took from engine j, a draw being half a point
+    public double score(int i, int j) {
+        long g = games(i, j);
+        return g == 0 ? 0.5 : (wins[i][j].sum() + 0.5 * draws[i][j].sum()) / g;
+    }
+
+    // 95% Wilson score interval for a proportion p over n games
+    public static double[] wilson(double p, long n) {
+        if (n == 0) return new double[] { 0, 1 };
+        double z2 = Z95 * Z95;
+        double denom = 1 + z2 / n;
+        double center = (p + z2 / (2 * n)) / denom;
+        double half = Z95 * Math.sqrt(p * (1 - p) / n + z2 / (4.0 * n * n)) / denom;
+        return new double[] { Math.max(0, center - half), Math.min(1, center + half) };
+    }
+
+    // Maximum-likelihood Elo ratings over all pairings, centred on 0. Each pairing
+    // gets one extra virtual draw so a perfect score still gives a finite rating.
+    public double[] elo() {
+        int n = engines.length;
+        double[][] games = new double[n][n];
+        double[][] points = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (i == j) continue;
+                games[i][j] = games(i, j) + 1;
+                points[i][j] = wins[i][j].sum() + 0.5 * draws[i][j].sum() + 0.5;
+            }
+        }
+        double[] rating = new double[n];
+        for (int iter = 0; iter < 10_000; iter++) {
+            double largest = 0;
+            for (int i = 0; i < n; i++) {
+                double expected = 0, actual = 0, played = 0;
+                for (int j = 0; j < n; j++) {
+                    if (i == j) continue;
+                    expected += games[i][j] / (1 + Math.pow(10, (rating[j] - rating[i]) / 400));
+                    actual += points[i][j];
+                    played += games[i][j];
+                }
+                double step = 400 * (actual - expected) / Math.max(1, played);
+                rating[i] += step;
+                largest = Math.max(largest, Math.abs(step));
+            }
+            if (largest < 1e-3) break;
+        }
+        double mean = Arrays.stream(rating).average().orElse(0);
+        for (int i = 0; i < n; i++) rating[i] -= mean;
+        return rating;
+    }
+
+    public void report(java.io.PrintStream out) {
+        int n = engines.length;
+        int width = 14;
+        for (String e : engines) width = Math.max(width, e.length() + 2);
+        String cell = "%-" + width + "s";
+
+        long total = 0;
+        for (int i = 0; i < n; i++)
+            for (int j = i + 1; j < n; j++)
+                total += games(i, j);
+        out.printf("%d games in %.2f s: %.0f games/s%n%n", total, elapsedNanos / 1e9, total / (elapsedNanos / 1e9));
+
+        out.println("Wins-draws-losses, row against column:");
+        out.printf(cell, "");
+        for (String e : engines) out.printf(cell, e);
+        out.println();
+        for (int i = 0; i < n; i++) {
+            out.printf(cell, engines[i]);
+            for (int j = 0; j < n; j++) {
+                out.printf(cell, i == j ? "-" : wins[i][j].sum() + "-" + draws[i][j].sum() + "-" + wins[j][i].sum());
+            }
+            out.println();
+        }
+
+        out.println();
+        out.println("Pairings, score of the first engine with 95% interval:");
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                double s = score(i, j);
+                double[] ci = wilson(s, games(i, j));
+                out.printf("  %s vs %s: %.1f%% [%.1f%%, %.1f%%] over %d games%n",
+                        engines[i], engines[j], 100 * s, 100 * ci[0], 100 * ci[1], games(i, j));
+            }
+        }
+
+        out.println();
+        double[] elo = elo();
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Double.compare(elo[b], elo[a]));
+        out.printf(cell + "%8s %14s%n", "Engine", "Elo", "ms per move");
+        for (int i : order) {
+            long m = moves[i].sum();
+            out.printf(cell + "%8.0f %14.3f%n", engines[i], elo[i], m == 0 ? 0 : moveNanos[i].sum() / 1e6 / m);
+        }
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> opts = Simulator.options(args, 0);
+        List<String> engines = opts.containsKey("engines")
+                ? Arrays.asList(opts.get("engines").split(","))
+                : Arrays.asList("easy", "medium", "hard");
+        for (String e : engines) Strategies.create(e); // fail fast on a typo
+        long games = Long.parseLong(opts.getOrDefault("games", "200"));
+        int threads = Simulator.threads(opts);
+        long seed = Long.parseLong(opts.getOrDefault("seed", "1"));
+        int size = Integer.parseInt(opts.getOrDefault("size", "12"));
+        Difficulty level = Difficulty.valueOf(opts.getOrDefault("board", "MEDIUM").toUpperCase());
+        if (opts.containsKey("think")) {
+            if (threads > 1) throw new IllegalArgumentException("think= needs threads=1; use nodes= and playouts= to run in parallel");
+        } else {
+            opts.putIfAbsent("nodes", DEFAULT_NODES);
+            opts.putIfAbsent("playouts", DEFAULT_PLAYOUTS);
+        }
+        Simulator.applyBudgets(opts);
+
+        Tournament t = new Tournament(new Simulator(size, size, level), engines);
+        t.run(games, threads, seed);
+        System.out.printf("%s on %dx%d %s boards, seed %d, %d threads%n", engines, size, size, level, seed, threads);
+        t.report(System.out);
+    }
+}
\ No newline at end of file
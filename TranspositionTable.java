@@ -0,0 +1,83 @@
+/**
+ * Fixed-size transposition table for lookahead search.
+ * Entries are keyed by a 64-bit state hash and hold the search depth, the
+ * score and the best direction found. The capacity is a power of two so the
+ * slot is a mask of the key, and a slot is only overwritten by a search that
+ * is at least as deep as the one already stored there.
+ * A table has a single writer and no locking: Master mode owns one, and
+ * each Hard mode root move owns its own.
+ */
+public class TranspositionTable {
+
+    private static final int NO_DIRECTION = 0xFF;
+
+    private final long[] checks;
+    private final long[] scores;
+    // (depth << 8) | direction ordinal; 0 marks an empty slot since depth >= 1
+    private final long[] meta;
+    private final int mask;
+
+    private long hits;
+    private long misses;
+
+    public TranspositionTable(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        checks = new long[size];
+        scores = new long[size];
+        meta = new long[size];
+        mask = size - 1;
+    }
+
+    // Stored score for this key at exactly this depth, or NaN on a miss
+    public double probe(long key, int depth) {
+        int slot = slotOf(key);
+        long bits = scores[slot];
+        long data = meta[slot];
+        if (data != 0 && checks[slot] == key && (data >>> 8) == depth) {
+            hits++;
+            return Double.longBitsToDouble(bits);
+        }
+        misses++;
+        return Double.NaN;
+    }
+
+    // Best direction stored for this key at any depth, or null
+    public Direction bestDirection(long key) {
+        int slot = slotOf(key);
+        long data = meta[slot];
+        if (data == 0 || checks[slot] != key) return null;
+        int dir = (int) (data & 0xFF);
+        return dir == NO_DIRECTION ? null : Direction.values()[dir];
+    }
+
+    public void store(long key, int depth, double score, Direction best) {
+        int slot = slotOf(key);
+        long old = meta[slot];
+        if (old != 0 && checks[slot] != key && (old >>> 8) > depth) return;
+        scores[slot] = Double.doubleToLongBits(score);
+        meta[slot] = ((long) depth << 8) | (best == null ? NO_DIRECTION : best.ordinal());
+        checks[slot] = key;
+    }
+
+    public void clear() {
+        java.util.Arrays.fill(meta, 0);
+        hits = 0;
+        misses = 0;
+    }
+
+    public int capacity() {
+        return checks.length;
+    }
+
+    public long hits() {
+        return hits;
+    }
+
+    public long misses() {
+        return misses;
+    }
+
+    private int slotOf(long key) {
+        return (int) (key ^ (key >>> 32)) & mask;
+    }
+}
\ No newline at end of file